@@ -67,6 +67,8 @@ android {
         compose = true
         buildConfig = true
     }
+    // 스캔 벤치마크의 가짜 MediaStore/SAF provider (MockContentResolver)
+    useLibrary("android.test.mock")
 }
 
 dependencies {
@@ -0,0 +1,313 @@
+package com.example.diallog.data.network;
+
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.diallog.data.model.TranscriptSegment;
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * STT 응답 파싱을 예전 방식(리플렉션 Gson으로 트리 전체를 만든 뒤 매핑)과 스트리밍 어댑터로 비교합니다.
+ * 단어 1k/10k/100k 규모의 합성 Google/Clova 응답으로 시간과 할당량을 재고, 두 방식의 구간이 같은지도 확인합니다.
+ * 결과는 logcat(SttParseBench)과 instrumentation status로 내보냅니다.
+ */
+@RunWith(Parameterized.class)
+public final class SttResponseParseBenchmarkTest {
+    private static final String TAG = "SttParseBench";
+    private static final int WARMUP_RUNS = 1;
+    private static final int MEASURED_RUNS = 3;
+    private static final int WORDS_PER_SEGMENT = 12;
+
+    @Parameterized.Parameters(name = "words={0}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][] {{1_000}, {10_000}, {100_000}});
+    }
+
+    private final int words;
+    private final Gson gson = new Gson();
+    private String googleJson;
+    private String clovaJson;
+
+    public SttResponseParseBenchmarkTest(int words) {
+        this.words = words;
+    }
+
+    @Before
+    public void setUp() {
+        googleJson = syntheticGoogle(words, 42L);
+        clovaJson = syntheticClova(words, 42L);
+    }
+
+    @Test
+    public void google() throws Exception {
+        List<TranscriptSegment> reflective = LegacyGoogle.map(
+                gson.fromJson(new StringReader(googleJson), LegacyGoogle.class));
+        List<TranscriptSegment> streaming = gson.fromJson(new StringReader(googleJson), GoogleSttResponse.class).segments;
+        assertSameSegments(reflective, streaming);
+
+        measure("google.reflective", () -> LegacyGoogle.map(
+                gson.fromJson(new StringReader(googleJson), LegacyGoogle.class)).size());
+        measure("google.streaming", () ->
+                gson.fromJson(new StringReader(googleJson), GoogleSttResponse.class).segments.size());
+    }
+
+    @Test
+    public void clova() throws Exception {
+        List<TranscriptSegment> reflective = LegacyClova.map(
+                gson.fromJson(new StringReader(clovaJson), LegacyClova.class));
+        List<TranscriptSegment> streaming = gson.fromJson(new StringReader(clovaJson), ClovaSpeechResponse.class).segments;
+        assertSameSegments(reflective, streaming);
+
+        measure("clova.reflective", () -> LegacyClova.map(
+                gson.fromJson(new StringReader(clovaJson), LegacyClova.class)).size());
+        measure("clova.streaming", () ->
+                gson.fromJson(new StringReader(clovaJson), ClovaSpeechResponse.class).segments.size());
+    }
+
+    private void measure(String label, Callable<Integer> parse) throws Exception {
+        long[][] runs = new long[MEASURED_RUNS][];
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            long allocBefore = allocatedBytes();
+            long start = SystemClock.elapsedRealtimeNanos();
+            int segments = parse.call();
+            long wallUs = (SystemClock.elapsedRealtimeNanos() - start) / 1_000L;
+            long alloc = allocBefore < 0 ? -1L : allocatedBytes() - allocBefore;
+            if (i >= WARMUP_RUNS) runs[i - WARMUP_RUNS] = new long[] {wallUs, alloc, segments};
+        }
+        Arrays.sort(runs, (a, b) -> Long.compare(a[0], b[0]));
+        long[] median = runs[runs.length / 2];
+        String line = String.format(Locale.US, "%s words=%d wall=%dus alloc=%dKB segments=%d",
+                label, words, median[0], median[1] / 1024, median[2]);
+        Log.i(TAG, line);
+        Bundle status = new Bundle();
+        status.putString("stt_parse_bench", line);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+    }
+
+    private static void assertSameSegments(List<TranscriptSegment> expected, List<TranscriptSegment> actual) {
+        assertEquals("segment count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TranscriptSegment e = expected.get(i);
+            TranscriptSegment a = actual.get(i);
+            assertEquals("text[" + i + "]", e.text, a.text);
+            assertEquals("start[" + i + "]", e.startMs, a.startMs);
+            assertEquals("end[" + i + "]", e.endMs, a.endMs);
+        }
+    }
+
+    /** 프로세스 전체 누적 할당량. 지원하지 않는 런타임이면 -1. */
+    private static long allocatedBytes() {
+        String v = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        if (v == null) return -1L;
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // ---- 합성 응답 ----
+
+    /** results마다 alternatives 2개(두 번째는 단어 없음), 단어마다 word/startTime/endTime/confidence */
+    private static String syntheticGoogle(int words, long seed) {
+        Random rnd = new Random(seed);
+        StringBuilder sb = new StringBuilder(words * 96);
+        sb.append("{\"results\":[");
+        long t = 0L;
+        for (int w = 0; w < words; ) {
+            if (w > 0) sb.append(',');
+            StringBuilder transcript = new StringBuilder();
+            StringBuilder wordsJson = new StringBuilder();
+            int n = Math.min(WORDS_PER_SEGMENT, words - w);
+            for (int i = 0; i < n; i++, w++) {
+                String word = "단어" + rnd.nextInt(1000);
+                long start = t;
+                t += 150 + rnd.nextInt(400);
+                if (i > 0) {
+                    transcript.append(' ');
+                    wordsJson.append(',');
+                }
+                transcript.append(word);
+                wordsJson.append("{\"startTime\":\"").append(seconds(start))
+                        .append("\",\"endTime\":\"").append(seconds(t))
+                        .append("\",\"word\":\"").append(word)
+                        .append("\",\"confidence\":0.9").append(rnd.nextInt(10)).append('}');
+            }
+            t += rnd.nextInt(800);
+            sb.append("{\"alternatives\":[{\"transcript\":\"").append(transcript)
+                    .append("\",\"confidence\":0.93,\"words\":[").append(wordsJson).append("]},")
+                    .append("{\"transcript\":\"").append(transcript).append("\",\"confidence\":0.41}]")
+                    .append(",\"resultEndTime\":\"").append(seconds(t))
+                    .append("\",\"languageCode\":\"ko-kr\"}");
+        }
+        sb.append("],\"totalBilledTime\":\"").append(t / 1000L).append("s\",\"requestId\":\"123\"}");
+        return sb.toString();
+    }
+
+    /** Clova 구간마다 words([start,end,word]), speaker, confidence 등 매핑에 쓰지 않는 필드 포함 */
+    private static String syntheticClova(int words, long seed) {
+        Random rnd = new Random(seed);
+        StringBuilder sb = new StringBuilder(words * 64);
+        StringBuilder full = new StringBuilder();
+        sb.append("{\"result\":\"COMPLETED\",\"message\":\"Succeeded\",\"segments\":[");
+        long t = 0L;
+        for (int w = 0; w < words; ) {
+            if (w > 0) sb.append(',');
+            long segStart = t;
+            StringBuilder text = new StringBuilder();
+            StringBuilder wordsJson = new StringBuilder();
+            int n = Math.min(WORDS_PER_SEGMENT, words - w);
+            for (int i = 0; i < n; i++, w++) {
+                String word = "단어" + rnd.nextInt(1000);
+                long start = t;
+                t += 150 + rnd.nextInt(400);
+                if (i > 0) {
+                    text.append(' ');
+                    wordsJson.append(',');
+                }
+                text.append(word);
+                wordsJson.append('[').append(start).append(',').append(t).append(",\"").append(word).append("\"]");
+            }
+            sb.append("{\"start\":").append(segStart).append(",\"end\":").append(t)
+                    .append(",\"text\":\"").append(text).append("\",\"confidence\":0.9")
+                    .append(",\"diarization\":{\"label\":\"").append(1 + rnd.nextInt(2)).append("\"}")
+                    .append(",\"speaker\":{\"label\":\"1\",\"name\":\"A\",\"edited\":false}")
+                    .append(",\"words\":[").append(wordsJson).append("],\"textEdited\":\"").append(text).append("\"}");
+            full.append(text).append(' ');
+            t += rnd.nextInt(800);
+        }
+        sb.append("],\"text\":\"").append(full.toString().trim()).append("\"}");
+        return sb.toString();
+    }
+
+    private static String seconds(long ms) {
+        return String.format(Locale.US, "%d.%03ds", ms / 1000L, ms % 1000L);
+    }
+
+    // ---- 예전 리플렉션 경로(비교용) ----
+
+    static final class LegacyGoogle {
+        List<Result> results;
+
+        static final class Result {
+            List<Alternative> alternatives;
+            String resultEndTime;
+        }
+
+        static final class Alternative {
+            String transcript;
+            List<WordInfo> words;
+        }
+
+        static final class WordInfo {
+            String word;
+            String startTime;
+            String endTime;
+        }
+
+        /** 예전 GoogleTranscriber.mapResponse */
+        static List<TranscriptSegment> map(@Nullable LegacyGoogle body) {
+            List<TranscriptSegment> segments = new ArrayList<>();
+            if (body == null || body.results == null || body.results.isEmpty()) return segments;
+            long lastEndMs = 0L;
+            for (Result result : body.results) {
+                if (result == null || result.alternatives == null || result.alternatives.isEmpty()) continue;
+                long resultEndMs = parse(result.resultEndTime);
+                for (Alternative alternative : result.alternatives) {
+                    if (alternative == null) continue;
+                    String transcript = alternative.transcript != null ? alternative.transcript.trim() : "";
+                    if (transcript.isEmpty()) continue;
+                    long startMs = lastEndMs;
+                    long endMs = lastEndMs;
+                    boolean hasWords = alternative.words != null && !alternative.words.isEmpty();
+                    boolean foundTimestamps = false;
+                    if (hasWords) {
+                        long firstStart = -1L;
+                        long lastEnd = -1L;
+                        long lastStart = -1L;
+                        for (WordInfo wordInfo : alternative.words) {
+                            if (wordInfo == null) continue;
+                            long wordStart = parse(wordInfo.startTime);
+                            long wordEnd = parse(wordInfo.endTime);
+                            if (wordStart >= 0 && firstStart < 0) firstStart = wordStart;
+                            if (wordEnd >= 0) lastEnd = wordEnd;
+                            if (wordStart >= 0) lastStart = wordStart;
+                            if (wordStart >= 0 || wordEnd >= 0) foundTimestamps = true;
+                        }
+                        if (firstStart >= 0) startMs = firstStart;
+                        long candidateEnd = lastEnd >= 0 ? lastEnd : lastStart;
+                        if (candidateEnd >= 0) endMs = candidateEnd;
+                    }
+                    if ((!hasWords || !foundTimestamps) && resultEndMs >= 0) {
+                        endMs = Math.max(resultEndMs, startMs);
+                    }
+                    if (endMs < startMs) endMs = startMs;
+                    segments.add(new TranscriptSegment(startMs, endMs, transcript));
+                    if (endMs > lastEndMs) lastEndMs = endMs;
+                }
+                if (resultEndMs > lastEndMs) lastEndMs = resultEndMs;
+            }
+            return segments;
+        }
+
+        private static long parse(@Nullable String duration) {
+            if (duration == null || duration.isEmpty()) return -1L;
+            String trimmed = duration.trim();
+            if (trimmed.endsWith("s") || trimmed.endsWith("S")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (trimmed.isEmpty()) return -1L;
+            try {
+                return new BigDecimal(trimmed).multiply(BigDecimal.valueOf(1000L))
+                        .setScale(0, RoundingMode.HALF_UP).longValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                return -1L;
+            }
+        }
+    }
+
+    static final class LegacyClova {
+        String text;
+        List<Seg> segments;
+
+        static final class Seg {
+            String text;
+            @SerializedName(value = "startMs", alternate = {"start"})
+            long startMs;
+            @SerializedName(value = "endMs", alternate = {"end"})
+            long endMs;
+        }
+
+        static List<TranscriptSegment> map(LegacyClova b) {
+            List<TranscriptSegment> out = new ArrayList<>();
+            if (b.segments != null) {
+                for (Seg s : b.segments) out.add(new TranscriptSegment(s.text, s.startMs, s.endMs));
+            }
+            return out;
+        }
+    }
+}
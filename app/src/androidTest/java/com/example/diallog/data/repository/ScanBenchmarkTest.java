@@ -0,0 +1,183 @@
+package com.example.diallog.data.repository;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.diallog.data.model.CallRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 합성 MediaStore/SAF provider 위에서 전체 스캔을 1k/10k/100k 규모로 측정합니다.
+ * 구성별(MediaStore만, SAF만, 둘 다)로 완료 시간, 첫 배치까지 시간, provider 조회 수, 할당량을 기록하며
+ * 결과는 logcat(ScanBench)과 instrumentation status로 내보냅니다.
+ */
+@RunWith(Parameterized.class)
+public final class ScanBenchmarkTest {
+    private static final String TAG = "ScanBench";
+    private static final int WARMUP_RUNS = 1;
+    private static final int MEASURED_RUNS = 3;
+    private static final long TIMEOUT_SEC = 300;
+
+    @Parameterized.Parameters(name = "rows={0}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][] {{1_000}, {10_000}, {100_000}});
+    }
+
+    private final int rows;
+    private SyntheticCallProviders.BenchContext context;
+    private SyntheticCallProviders.SyntheticLibrary library;
+
+    public ScanBenchmarkTest(int rows) {
+        this.rows = rows;
+    }
+
+    @Before
+    public void setUp() {
+        context = new SyntheticCallProviders.BenchContext(ApplicationProvider.getApplicationContext());
+        library = SyntheticCallProviders.SyntheticLibrary.generate(rows, 42L);
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(context.getFilesDir());
+    }
+
+    @Test
+    public void mediaStoreOnly() throws Exception {
+        context.load(library, true, false);
+        Result r = measure("mediastore", null);
+        assertTrue("no rows matched", r.matched > 0);
+    }
+
+    @Test
+    public void safOnly() throws Exception {
+        context.load(library, false, true);
+        Result r = measure("saf", library.treeUri());
+        assertTrue("no rows matched", r.matched > 0);
+    }
+
+    @Test
+    public void fullScan() throws Exception {
+        context.load(library, true, true);
+        Result r = measure("full", library.treeUri());
+        assertTrue("no rows matched", r.matched > 0);
+    }
+
+    private Result measure(String label, @Nullable Uri dirUri) throws Exception {
+        Result[] runs = new Result[MEASURED_RUNS];
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            Result r = runOnce(dirUri);
+            if (i >= WARMUP_RUNS) runs[i - WARMUP_RUNS] = r;
+        }
+        Arrays.sort(runs, (a, b) -> Long.compare(a.wallMs, b.wallMs));
+        Result median = runs[runs.length / 2];
+        report(label, median);
+        return median;
+    }
+
+    /** 빈 인덱스에서 전체 스캔 한 번. 매번 새 저장소를 만들어 이전 스냅샷의 영향을 없앱니다. */
+    private Result runOnce(@Nullable Uri dirUri) throws Exception {
+        deleteRecursively(context.getFilesDir());
+        //noinspection ResultOfMethodCallIgnored
+        context.getFilesDir().mkdirs();
+        FileSystemCallRepository repo = new FileSystemCallRepository(context, dirUri,
+                new HashSet<>(Arrays.asList("통화", "call", "recording", "DialLog")),
+                new HashSet<>(Arrays.asList("m4a", "mp3", "amr", "ogg", "wav", "aac")),
+                true);
+        repo.setMetadataEnrichment(false);
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicLong firstBatchAt = new AtomicLong(-1L);
+        AtomicInteger matched = new AtomicInteger();
+        int queriesBefore = context.queryCount();
+        long allocBefore = allocatedBytes();
+        long start = SystemClock.elapsedRealtime();
+
+        repo.refreshAsync(true, new ScanListener() {
+            @Override public void onBatch(@NonNull List<CallRecord> sortedBatch) {
+                if (!sortedBatch.isEmpty()) firstBatchAt.compareAndSet(-1L, SystemClock.elapsedRealtime());
+            }
+
+            @Override public void onProgress(@NonNull Progress progress) {
+                if (progress.done) {
+                    matched.set(progress.rowsMatched);
+                    done.countDown();
+                }
+            }
+        });
+        assertTrue("scan timed out", done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+
+        Result r = new Result();
+        r.wallMs = SystemClock.elapsedRealtime() - start;
+        r.firstBatchMs = firstBatchAt.get() < 0 ? -1L : firstBatchAt.get() - start;
+        r.queries = context.queryCount() - queriesBefore;
+        r.allocBytes = allocBefore < 0 ? -1L : allocatedBytes() - allocBefore;
+        r.matched = Math.max(matched.get(), repo.getRecent(0, Integer.MAX_VALUE).size());
+        return r;
+    }
+
+    private void report(String label, Result r) {
+        String line = String.format(Locale.US,
+                "%s rows=%d wall=%dms firstBatch=%dms queries=%d alloc=%dKB matched=%d",
+                label, rows, r.wallMs, r.firstBatchMs, r.queries, r.allocBytes / 1024, r.matched);
+        Log.i(TAG, line);
+        Bundle status = new Bundle();
+        status.putString("scan_bench", line);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+    }
+
+    /** 프로세스 전체 누적 할당량. 지원하지 않는 런타임이면 -1. */
+    private static long allocatedBytes() {
+        String v = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        if (v == null) return -1L;
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static void deleteRecursively(@Nullable File f) {
+        if (f == null || !f.exists()) return;
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) deleteRecursively(c);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        f.delete();
+    }
+
+    private static final class Result {
+        long wallMs;
+        long firstBatchMs;
+        int queries;
+        long allocBytes;
+        int matched;
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.diallog.data.repository;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.ProviderInfo;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.test.mock.MockContentResolver;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스캔 벤치마크용 가짜 데이터.
+ * - SyntheticLibrary: 통화녹음/음악/알림음 등이 섞인 N개 오디오 행과 같은 규모의 SAF 문서 트리
+ * - FakeMediaProvider: 메모리 SQLite로 MediaStore 오디오 테이블 흉내 (selection/정렬/LIMIT 그대로 실행)
+ * - FakeDocumentsProvider: DocumentsContract children URI에 응답하는 문서 트리
+ * - BenchContext: 위 provider를 쓰는 ContentResolver와 임시 filesDir를 가진 Context
+ */
+final class SyntheticCallProviders {
+    static final String DOCS_AUTHORITY = "com.example.diallog.bench.documents";
+    static final String TREE_ROOT_ID = "primary:Recordings";
+
+    private SyntheticCallProviders() {
+    }
+
+    static final class MediaRow {
+        final String name;
+        final String relativePath;
+        final long durationMs;
+        final long dateModifiedSec;
+        final String mime;
+        final long size;
+
+        MediaRow(String name, String relativePath, long durationMs, long dateModifiedSec, String mime, long size) {
+            this.name = name;
+            this.relativePath = relativePath;
+            this.durationMs = durationMs;
+            this.dateModifiedSec = dateModifiedSec;
+            this.mime = mime;
+            this.size = size;
+        }
+    }
+
+    static final class Doc {
+        final String id;
+        final String name;
+        final String mime;
+        final long size;
+        final long lastModifiedMs;
+
+        Doc(String id, String name, String mime, long size, long lastModifiedMs) {
+            this.id = id;
+            this.name = name;
+            this.mime = mime;
+            this.size = size;
+            this.lastModifiedMs = lastModifiedMs;
+        }
+    }
+
+    /** 이름/경로/힌트 분포가 실제 기기와 비슷한 합성 라이브러리 */
+    static final class SyntheticLibrary {
+        final List<MediaRow> media = new ArrayList<>();
+        final Map<String, List<Doc>> children = new HashMap<>();
+        int hintRows;
+        int safFiles;
+
+        /** rows개의 MediaStore 행과 rows개의 SAF 파일을 만듭니다. 같은 seed면 같은 결과. */
+        static SyntheticLibrary generate(int rows, long seed) {
+            SyntheticLibrary lib = new SyntheticLibrary();
+            Random random = new Random(seed);
+            long now = System.currentTimeMillis() / 1000L;
+            for (int i = 0; i < rows; i++) {
+                long date = now - i * 137L - random.nextInt(60);
+                lib.media.add(lib.mediaRow(i, date, random));
+            }
+            lib.buildTree(rows, now, random);
+            return lib;
+        }
+
+        @NonNull
+        Uri treeUri() {
+            return DocumentsContract.buildTreeDocumentUri(DOCS_AUTHORITY, TREE_ROOT_ID);
+        }
+
+        private MediaRow mediaRow(int i, long date, Random random) {
+            int kind = random.nextInt(100);
+            long size = 50_000L + random.nextInt(5_000_000);
+            if (kind < 20) {
+                hintRows++;
+                return new MediaRow(String.format(Locale.US, "통화 녹음 010-%04d-%04d_%s.m4a",
+                        random.nextInt(10_000), random.nextInt(10_000), stamp(date)),
+                        "Music/DialLog/", 30_000L + random.nextInt(900_000), date, "audio/mp4", size);
+            }
+            if (kind < 35) {
+                hintRows++;
+                return new MediaRow(String.format(Locale.US, "Call recording +8210%08d_%s.m4a",
+                        random.nextInt(100_000_000), stamp(date)),
+                        "Recordings/Call/", 30_000L + random.nextInt(900_000), date, "audio/mp4", size);
+            }
+            if (kind < 45) {
+                return new MediaRow(String.format(Locale.US, "memo_%s.amr", stamp(date)),
+                        "Music/DialLog/", 5_000L + random.nextInt(120_000), date, "audio/amr", size);
+            }
+            if (kind < 85) {
+                int artist = random.nextInt(200);
+                return new MediaRow(String.format(Locale.US, "Artist %d - Track %d.mp3", artist, i),
+                        "Music/Artist " + artist + "/", 120_000L + random.nextInt(240_000), date, "audio/mpeg", size);
+            }
+            if (kind < 95) {
+                // 최소 길이(300ms) 미만이라 걸러지는 알림음
+                return new MediaRow("notification_" + i + ".ogg", "Notifications/",
+                        50L + random.nextInt(200), date, "audio/ogg", 4_000L);
+            }
+            // 확장자 필터에 걸리지 않는 형식
+            return new MediaRow("clip_" + i + ".opus", "Download/", 10_000L, date, "audio/opus", size);
+        }
+
+        private void buildTree(int files, long nowSec, Random random) {
+            String root = TREE_ROOT_ID;
+            String call = dir(root, "Call");
+            String voice = dir(root, "Voice");
+            dir(root, ".thumbnails");
+            dir(root, "Backup");
+            int months = Math.max(1, files / 500);
+            List<String> monthDirs = new ArrayList<>(months);
+            for (int m = 0; m < months; m++) {
+                monthDirs.add(dir(call, String.format(Locale.US, "%04d-%02d", 2025 - m / 12, 12 - m % 12)));
+            }
+            for (int i = 0; i < files; i++) {
+                long modifiedMs = (nowSec - i * 97L) * 1000L;
+                boolean isVoice = random.nextInt(10) == 0;
+                String parent = isVoice ? voice : monthDirs.get(i % months);
+                String name = isVoice
+                        ? String.format(Locale.US, "Voice %05d.m4a", i)
+                        : String.format(Locale.US, "통화_%s_%04d.m4a", stamp(modifiedMs / 1000L), i);
+                String mime = isVoice ? "audio/mp4" : (i % 7 == 0 ? "application/octet-stream" : "audio/mp4");
+                long size = i % 50 == 0 ? 0L : 40_000L + random.nextInt(3_000_000);
+                add(parent, new Doc(parent + "/" + name, name, mime, size, modifiedMs));
+                safFiles++;
+            }
+            // 오디오가 아닌 파일도 섞어 둡니다.
+            for (int i = 0; i < Math.max(1, files / 20); i++) {
+                String parent = monthDirs.get(i % months);
+                add(parent, new Doc(parent + "/note_" + i + ".txt", "note_" + i + ".txt", "text/plain", 100L, 0L));
+            }
+        }
+
+        private String dir(String parent, String name) {
+            String id = parent + "/" + name;
+            add(parent, new Doc(id, name, DocumentsContract.Document.MIME_TYPE_DIR, 0L, 0L));
+            children.computeIfAbsent(id, k -> new ArrayList<>());
+            return id;
+        }
+
+        private void add(String parent, Doc doc) {
+            children.computeIfAbsent(parent, k -> new ArrayList<>()).add(doc);
+        }
+
+        private static String stamp(long epochSec) {
+            return String.format(Locale.US, "%tY%<tm%<td_%<tH%<tM%<tS", epochSec * 1000L);
+        }
+    }
+
+    /** 메모리 SQLite 위의 MediaStore 오디오 테이블. 받은 selection/정렬/LIMIT을 그대로 실행합니다. */
+    static final class FakeMediaProvider extends ContentProvider {
+        private static final String TABLE = "audio";
+        final AtomicInteger queries = new AtomicInteger();
+        private SQLiteDatabase db;
+
+        @Override public boolean onCreate() {
+            db = SQLiteDatabase.create(null);
+            db.execSQL("CREATE TABLE " + TABLE + " ("
+                    + MediaStore.Audio.Media._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + MediaStore.Audio.Media.DISPLAY_NAME + " TEXT, "
+                    + MediaStore.Audio.Media.DURATION + " INTEGER, "
+                    + MediaStore.Audio.Media.DATE_MODIFIED + " INTEGER, "
+                    + MediaStore.Audio.Media.RELATIVE_PATH + " TEXT, "
+                    + MediaStore.Audio.Media.DATA + " TEXT, "
+                    + MediaStore.Audio.Media.MIME_TYPE + " TEXT, "
+                    + MediaStore.Audio.Media.SIZE + " INTEGER)");
+            return true;
+        }
+
+        void load(@NonNull List<MediaRow> rows) {
+            db.beginTransaction();
+            try {
+                db.delete(TABLE, null, null);
+                SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE + " ("
+                        + MediaStore.Audio.Media.DISPLAY_NAME + ", "
+                        + MediaStore.Audio.Media.DURATION + ", "
+                        + MediaStore.Audio.Media.DATE_MODIFIED + ", "
+                        + MediaStore.Audio.Media.RELATIVE_PATH + ", "
+                        + MediaStore.Audio.Media.DATA + ", "
+                        + MediaStore.Audio.Media.MIME_TYPE + ", "
+                        + MediaStore.Audio.Media.SIZE + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+                for (MediaRow r : rows) {
+                    insert.clearBindings();
+                    insert.bindString(1, r.name);
+                    insert.bindLong(2, r.durationMs);
+                    insert.bindLong(3, r.dateModifiedSec);
+                    insert.bindString(4, r.relativePath);
+                    insert.bindString(5, "/storage/emulated/0/" + r.relativePath + r.name);
+                    insert.bindString(6, r.mime);
+                    insert.bindLong(7, r.size);
+                    insert.executeInsert();
+                }
+                db.execSQL("CREATE INDEX IF NOT EXISTS idx_date ON " + TABLE + " ("
+                        + MediaStore.Audio.Media.DATE_MODIFIED + ", " + MediaStore.Audio.Media._ID + ")");
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        @Nullable @Override
+        public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable Bundle args,
+                            @Nullable CancellationSignal signal) {
+            queries.incrementAndGet();
+            if (args == null) args = Bundle.EMPTY;
+            String order;
+            String[] sortColumns = args.getStringArray(ContentResolver.QUERY_ARG_SORT_COLUMNS);
+            if (sortColumns != null) {
+                String dir = args.getInt(ContentResolver.QUERY_ARG_SORT_DIRECTION,
+                        ContentResolver.QUERY_SORT_DIRECTION_ASCENDING)
+                        == ContentResolver.QUERY_SORT_DIRECTION_DESCENDING ? " DESC" : " ASC";
+                order = TextUtils.join(dir + ", ", sortColumns) + dir;
+            } else {
+                order = args.getString(ContentResolver.QUERY_ARG_SQL_SORT_ORDER);
+            }
+            String limit = args.containsKey(ContentResolver.QUERY_ARG_LIMIT)
+                    ? String.valueOf(args.getInt(ContentResolver.QUERY_ARG_LIMIT)) : null;
+            return run(uri, projection,
+                    args.getString(ContentResolver.QUERY_ARG_SQL_SELECTION),
+                    args.getStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS),
+                    order, limit);
+        }
+
+        @Nullable @Override
+        public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                            @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+            queries.incrementAndGet();
+            // API 29 미만 경로는 정렬 문자열 끝에 " LIMIT n"을 붙여 보냅니다. SQLite ORDER BY 뒤에 그대로 이어집니다.
+            return run(uri, projection, selection, selectionArgs, sortOrder, null);
+        }
+
+        private Cursor run(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                           String order, String limit) {
+            String last = uri.getLastPathSegment();
+            if (last != null && TextUtils.isDigitsOnly(last)) {
+                selection = TextUtils.isEmpty(selection)
+                        ? MediaStore.Audio.Media._ID + " = " + last
+                        : "(" + selection + ") AND " + MediaStore.Audio.Media._ID + " = " + last;
+            }
+            return db.query(TABLE, projection, selection, selectionArgs, null, null, order, limit);
+        }
+
+        @Nullable @Override public String getType(@NonNull Uri uri) { return null; }
+        @Nullable @Override public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) { return null; }
+        @Override public int delete(@NonNull Uri uri, @Nullable String s, @Nullable String[] a) { return 0; }
+        @Override public int update(@NonNull Uri uri, @Nullable ContentValues v, @Nullable String s,
+                                    @Nullable String[] a) { return 0; }
+    }
+
+    /** tree/{treeId}/document/{docId}/children 조회에 응답하는 문서 트리 */
+    static final class FakeDocumentsProvider extends ContentProvider {
+        final AtomicInteger queries = new AtomicInteger();
+        private volatile Map<String, List<Doc>> children = Collections.emptyMap();
+
+        void load(@NonNull Map<String, List<Doc>> tree) {
+            children = tree;
+        }
+
+        @Override public boolean onCreate() { return true; }
+
+        @Nullable @Override
+        public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable Bundle args,
+                            @Nullable CancellationSignal signal) {
+            return query(uri, projection, null, null, null);
+        }
+
+        @Nullable @Override
+        public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                            @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+            queries.incrementAndGet();
+            String[] cols = projection != null ? projection : new String[] {
+                    DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+                    DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+                    DocumentsContract.Document.COLUMN_MIME_TYPE,
+                    DocumentsContract.Document.COLUMN_SIZE,
+                    DocumentsContract.Document.COLUMN_LAST_MODIFIED
+            };
+            MatrixCursor cursor = new MatrixCursor(cols);
+            List<String> seg = uri.getPathSegments();
+            if (seg.size() < 5 || !"children".equals(seg.get(4))) return cursor;
+            List<Doc> docs = children.get(seg.get(3));
+            if (docs == null) return cursor;
+            for (Doc d : docs) {
+                Object[] row = new Object[cols.length];
+                for (int i = 0; i < cols.length; i++) row[i] = column(d, cols[i]);
+                cursor.addRow(row);
+            }
+            return cursor;
+        }
+
+        @Nullable
+        private static Object column(Doc d, String col) {
+            switch (col) {
+                case DocumentsContract.Document.COLUMN_DOCUMENT_ID: return d.id;
+                case DocumentsContract.Document.COLUMN_DISPLAY_NAME: return d.name;
+                case DocumentsContract.Document.COLUMN_MIME_TYPE: return d.mime;
+                case DocumentsContract.Document.COLUMN_SIZE: return d.size;
+                case DocumentsContract.Document.COLUMN_LAST_MODIFIED: return d.lastModifiedMs;
+                default: return null;
+            }
+        }
+
+        @Nullable @Override public String getType(@NonNull Uri uri) { return null; }
+        @Nullable @Override public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) { return null; }
+        @Override public int delete(@NonNull Uri uri, @Nullable String s, @Nullable String[] a) { return 0; }
+        @Override public int update(@NonNull Uri uri, @Nullable ContentValues v, @Nullable String s,
+                                    @Nullable String[] a) { return 0; }
+    }
+
+    /** 가짜 provider만 보이는 ContentResolver와 벤치마크 전용 filesDir를 가진 Context */
+    static final class BenchContext extends ContextWrapper {
+        final FakeMediaProvider media = new FakeMediaProvider();
+        final FakeDocumentsProvider documents = new FakeDocumentsProvider();
+        private final MockContentResolver resolver;
+        private final File filesDir;
+
+        BenchContext(@NonNull Context base) {
+            super(base);
+            filesDir = new File(base.getCacheDir(), "scan_bench");
+            //noinspection ResultOfMethodCallIgnored
+            filesDir.mkdirs();
+            resolver = new MockContentResolver(this);
+            media.attachInfo(this, providerInfo(MediaStore.AUTHORITY));
+            documents.attachInfo(this, providerInfo(DOCS_AUTHORITY));
+            resolver.addProvider(MediaStore.AUTHORITY, media);
+            resolver.addProvider(DOCS_AUTHORITY, documents);
+        }
+
+        private static ProviderInfo providerInfo(String authority) {
+            ProviderInfo info = new ProviderInfo();
+            info.authority = authority;
+            return info;
+        }
+
+        void load(@NonNull SyntheticLibrary library, boolean withMedia, boolean withDocuments) {
+            media.load(withMedia ? library.media : Collections.emptyList());
+            documents.load(withDocuments ? library.children : Collections.emptyMap());
+        }
+
+        int queryCount() {
+            return media.queries.get() + documents.queries.get();
+        }
+
+        @Override public ContentResolver getContentResolver() { return resolver; }
+        @Override public Context getApplicationContext() { return this; }
+        @Override public File getFilesDir() { return filesDir; }
+    }
+}
@@ -6,16 +6,48 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 public final class CallRecord {
+    /** 레코드를 발견한 출처 */
+    public enum Source { MEDIA_STORE, SAF, UNKNOWN }
+
     public final @NonNull Uri uri;
     public final String fileName;
     public final long durationMs;
     public final long startedAtEpochMs;
+    public final @NonNull Source source;
+    /** 저장 폴더 (볼륨 기준 상대 경로, 예: "Recordings/Call"). 알 수 없으면 null. */
+    public final @Nullable String folder;
+    /** 파일 크기(byte). 알 수 없으면 0. */
+    public final long sizeBytes;
 
     public CallRecord(@NonNull Uri uri, String fileName, long durationMs, long startedAtEpochMs) {
+        this(uri, fileName, durationMs, startedAtEpochMs, Source.UNKNOWN);
+    }
+
+    public CallRecord(@NonNull Uri uri, String fileName, long durationMs, long startedAtEpochMs,
+                      @NonNull Source source) {
+        this(uri, fileName, durationMs, startedAtEpochMs, source, null);
+    }
+
+    public CallRecord(@NonNull Uri uri, String fileName, long durationMs, long startedAtEpochMs,
+                      @NonNull Source source, @Nullable String folder) {
+        this(uri, fileName, durationMs, startedAtEpochMs, source, folder, 0L);
+    }
+
+    public CallRecord(@NonNull Uri uri, String fileName, long durationMs, long startedAtEpochMs,
+                      @NonNull Source source, @Nullable String folder, long sizeBytes) {
         this.uri = uri;
         this.fileName = fileName;
         this.durationMs = durationMs;
         this.startedAtEpochMs = startedAtEpochMs;
+        this.source = source;
+        this.folder = folder;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /** 길이만 바꾼 사본 (메타데이터 보강용) */
+    @NonNull
+    public CallRecord withDuration(long newDurationMs) {
+        return new CallRecord(uri, fileName, newDurationMs, startedAtEpochMs, source, folder, sizeBytes);
     }
 
     @NonNull @Override
@@ -24,6 +56,9 @@ public final class CallRecord {
                 "fileName='" + fileName + '\'' +
                 ", durationMs=" + durationMs +
                 ", startedAt=" + startedAtEpochMs +
+                ", source=" + source +
+                ", folder=" + folder +
+                ", size=" + sizeBytes +
                 ", uri=" + uri +
                 '}';
     }
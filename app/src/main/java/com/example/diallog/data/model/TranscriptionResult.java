@@ -12,11 +12,21 @@ public final class TranscriptionResult {
     public final List<TranscriptSegment> segments;
     public final boolean isFinal;
     @Nullable public final Metadata metadata;
+    /** 단어별 시각. 제공자가 주지 않았으면 EMPTY */
+    @NonNull public final WordTimings words;
 
     public TranscriptionResult(@NonNull List<TranscriptSegment> segments,
                                boolean isFinal,
                                @Nullable Metadata metadata) {
+        this(segments, WordTimings.EMPTY, isFinal, metadata);
+    }
+
+    public TranscriptionResult(@NonNull List<TranscriptSegment> segments,
+                               @NonNull WordTimings words,
+                               boolean isFinal,
+                               @Nullable Metadata metadata) {
         this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+        this.words = Objects.requireNonNull(words, "words");
         this.isFinal = isFinal;
         this.metadata = metadata;
     }
@@ -27,6 +37,13 @@ public final class TranscriptionResult {
         return new TranscriptionResult(segments, true, metadata);
     }
 
+    @NonNull
+    public static TranscriptionResult finalResult(@NonNull List<TranscriptSegment> segments,
+                                                  @NonNull WordTimings words,
+                                                  @Nullable Metadata metadata) {
+        return new TranscriptionResult(segments, words, true, metadata);
+    }
+
     @NonNull
     public static TranscriptionResult interim(@NonNull List<TranscriptSegment> segments,
                                               @Nullable Metadata metadata) {
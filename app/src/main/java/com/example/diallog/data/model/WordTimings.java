@@ -0,0 +1,184 @@
+package com.example.diallog.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 전사 한 건의 단어별 시각. 탭해서 이동하기와 재생 위치 강조에 씁니다.
+ * 단어마다 객체를 두지 않고 열 단위 기본형 배열로 보관합니다.
+ * - startMs/endMs: 녹음 시작 기준 ms
+ * - 단어 문자열은 하나의 text에 이어 붙이고 textOffsets[i]..textOffsets[i+1]로 구분
+ * 단어는 시작 시각 순으로 정렬되어 있어 시각 조회는 이진 탐색입니다. 만든 뒤에는 바뀌지 않습니다.
+ */
+public final class WordTimings {
+    public static final WordTimings EMPTY = new WordTimings(new int[0], new int[0], new int[] {0}, "");
+
+    private final int[] startMs;
+    private final int[] endMs;
+    private final int[] textOffsets;
+    private final String text;
+
+    /** 배열은 그대로 보관하므로 넘긴 뒤 수정하지 마세요. */
+    public WordTimings(@NonNull int[] startMs, @NonNull int[] endMs,
+                       @NonNull int[] textOffsets, @NonNull String text) {
+        int n = startMs.length;
+        if (endMs.length != n || textOffsets.length != n + 1 || textOffsets[n] != text.length()) {
+            throw new IllegalArgumentException("inconsistent word columns n=" + n);
+        }
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.textOffsets = textOffsets;
+        this.text = text;
+    }
+
+    public int size() {
+        return startMs.length;
+    }
+
+    public boolean isEmpty() {
+        return startMs.length == 0;
+    }
+
+    public int startMs(int index) {
+        return startMs[index];
+    }
+
+    public int endMs(int index) {
+        return endMs[index];
+    }
+
+    /** 호출할 때마다 부분 문자열을 만듭니다. 길이만 필요하면 wordLength()를 쓰세요. */
+    @NonNull
+    public String word(int index) {
+        return text.substring(textOffsets[index], textOffsets[index + 1]);
+    }
+
+    public int wordLength(int index) {
+        return textOffsets[index + 1] - textOffsets[index];
+    }
+
+    /** 모든 단어를 이어 붙인 문자열. 저장용 */
+    @NonNull
+    public String packedText() {
+        return text;
+    }
+
+    /**
+     * timeMs에 말하고 있던(또는 바로 직전에 시작한) 단어의 인덱스. 첫 단어보다 앞이면 -1.
+     * 단어 사이 침묵 구간에서는 앞 단어를 돌려주므로 강조가 깜빡이지 않습니다.
+     */
+    public int indexAt(long timeMs) {
+        int lo = 0;
+        int hi = startMs.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startMs[mid] <= timeMs) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /** fromMs 이후에 시작하는 첫 단어의 인덱스. 없으면 size(). 구간별 단어 범위를 찾을 때 씁니다. */
+    public int firstIndexFrom(long fromMs) {
+        int lo = 0;
+        int hi = startMs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startMs[mid] < fromMs) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** 조각별 결과를 각자의 시작 오프셋만큼 밀어 하나로 합칩니다. */
+    @NonNull
+    public static WordTimings concat(@NonNull List<WordTimings> parts, @NonNull long[] offsetsMs) {
+        Builder b = new Builder();
+        for (int p = 0; p < parts.size(); p++) {
+            WordTimings w = parts.get(p);
+            long offset = offsetsMs[p];
+            for (int i = 0; i < w.size(); i++) {
+                b.add(w.text, w.textOffsets[i], w.textOffsets[i + 1], w.startMs[i] + offset, w.endMs[i] + offset);
+            }
+        }
+        return b.build();
+    }
+
+    /** 파싱 중에 단어를 하나씩 모읍니다. 시작 시각이 앞선 단어가 뒤에 오면 build()에서 정렬합니다. */
+    public static final class Builder {
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int[] offsets = new int[65];
+        private final StringBuilder text = new StringBuilder();
+        private int size;
+        private boolean sorted = true;
+
+        public void add(@NonNull CharSequence word, long startMs, long endMs) {
+            add(word, 0, word.length(), startMs, endMs);
+        }
+
+        public void add(@NonNull CharSequence source, int from, int to, long startMs, long endMs) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            int start = clampMs(startMs);
+            int end = Math.max(start, clampMs(endMs));
+            if (size > 0 && start < starts[size - 1]) sorted = false;
+            starts[size] = start;
+            ends[size] = end;
+            text.append(source, from, to);
+            offsets[size + 1] = text.length();
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        @NonNull
+        public WordTimings build() {
+            if (size == 0) return EMPTY;
+            if (!sorted) sortByStart();
+            return new WordTimings(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(offsets, size + 1), text.toString());
+        }
+
+        /** 드문 경우(제공자가 순서를 섞어 줄 때)에만 타며, 인덱스 배열로 한 번 재배치합니다. */
+        private void sortByStart() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            final int[] s = starts;
+            Arrays.sort(order, (a, b) -> Integer.compare(s[a], s[b]));
+            int[] ns = new int[starts.length];
+            int[] ne = new int[ends.length];
+            int[] no = new int[offsets.length];
+            StringBuilder nt = new StringBuilder(text.length());
+            for (int i = 0; i < size; i++) {
+                int k = order[i];
+                ns[i] = starts[k];
+                ne[i] = ends[k];
+                nt.append(text, offsets[k], offsets[k + 1]);
+                no[i + 1] = nt.length();
+            }
+            starts = ns;
+            ends = ne;
+            offsets = no;
+            text.setLength(0);
+            text.append(nt);
+            sorted = true;
+        }
+
+        private static int clampMs(long ms) {
+            return (int) Math.max(0L, Math.min(Integer.MAX_VALUE, ms));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.diallog.data.network;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Google STT 요청 JSON을 스트리밍으로 씁니다.
+ * {"config":{...},"audio":{"content":"<base64>"}} 중 content는 파일에서 고정 크기 블록씩 읽어 바로 인코딩하므로
+ * 파일 전체 byte[] / base64 문자열 / JSON 문자열을 메모리에 만들지 않습니다.
+ * 파일을 다시 읽을 수 있어 재시도(401 후 재전송 등)에도 쓸 수 있습니다.
+ */
+public final class Base64FileRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final Gson GSON = new Gson();
+    /** 3의 배수여야 블록 경계에 '=' 패딩이 생기지 않습니다. */
+    private static final int BLOCK_BYTES = 3 * 16 * 1024;
+
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private final File file;
+    private final long fileLength;
+
+    public Base64FileRequestBody(@NonNull GoogleSttRequest.Config config, @NonNull File file) {
+        this.prefix = ("{\"config\":" + GSON.toJson(config) + ",\"audio\":{\"content\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+        this.suffix = "\"}}".getBytes(StandardCharsets.UTF_8);
+        this.file = file;
+        this.fileLength = file.length();
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        return prefix.length + base64Length(fileLength) + suffix.length;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        sink.write(prefix);
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES);
+            long remaining = fileLength;
+            while (remaining > 0) {
+                block.clear();
+                block.limit((int) Math.min(BLOCK_BYTES, remaining));
+                // 마지막 블록 외에는 꽉 채워야 중간에 패딩이 끼지 않습니다.
+                while (block.hasRemaining()) {
+                    if (channel.read(block) < 0) throw new IOException("file shrank while uploading: " + file);
+                }
+                int n = block.position();
+                sink.write(Base64.encode(block.array(), 0, n, Base64.NO_WRAP));
+                remaining -= n;
+            }
+        }
+        sink.write(suffix);
+    }
+
+    private static long base64Length(long bytes) {
+        return (bytes + 2) / 3 * 4;
+    }
+}
@@ -1,18 +1,16 @@
 package com.example.diallog.data.network;
 
-import com.google.gson.annotations.SerializedName;
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
+import com.google.gson.annotations.JsonAdapter;
 
+import java.util.Collections;
 import java.util.List;
 
+/** Clova Speech 응답. 구간과 단어 시각(wordAlignment)은 ClovaSpeechResponseAdapter가 파싱하면서 바로 만듭니다. */
+@JsonAdapter(ClovaSpeechResponseAdapter.class)
 public class ClovaSpeechResponse {
     public String text;
-    public List<Seg> segments;
-    public static final class Seg {
-        public String text;
-        @SerializedName(value = "startMs", alternate = {"start"})
-        public long startMs;
-        @SerializedName(value = "endMs", alternate = {"end"})
-        public long endMs;
-    }
-
+    public List<TranscriptSegment> segments = Collections.emptyList();
+    public WordTimings words = WordTimings.EMPTY;
 }
@@ -0,0 +1,152 @@
+package com.example.diallog.data.network;
+
+import androidx.annotation.NonNull;
+
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClovaSpeechResponse를 JsonReader로 읽으면서 segments를 바로 TranscriptSegment로 만듭니다.
+ * 구간의 words([시작ms, 끝ms, "단어"])는 WordTimings 열 배열에 바로 쌓고,
+ * speaker/confidence 등 나머지는 문자열도 만들지 않고 건너뜁니다.
+ * 시각은 startMs/endMs 또는 start/end(ms) 중 마지막에 나온 값을 씁니다.
+ */
+public final class ClovaSpeechResponseAdapter extends TypeAdapter<ClovaSpeechResponse> {
+
+    @Override
+    public ClovaSpeechResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ClovaSpeechResponse response = new ClovaSpeechResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if ("text".equals(name)) {
+                response.text = in.nextString();
+            } else if ("segments".equals(name)) {
+                WordTimings.Builder words = new WordTimings.Builder();
+                response.segments = readSegments(in, words);
+                response.words = words.build();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+
+    @NonNull
+    private static List<TranscriptSegment> readSegments(@NonNull JsonReader in,
+                                                        @NonNull WordTimings.Builder words) throws IOException {
+        List<TranscriptSegment> out = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            String text = null;
+            long startMs = 0L;
+            long endMs = 0L;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "text":
+                        text = in.nextString();
+                        break;
+                    case "startMs":
+                    case "start":
+                        startMs = in.nextLong();
+                        break;
+                    case "endMs":
+                    case "end":
+                        endMs = in.nextLong();
+                        break;
+                    case "words":
+                        readWords(in, words);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            out.add(new TranscriptSegment(text, startMs, endMs));
+        }
+        in.endArray();
+        return out;
+    }
+
+    /** [[시작ms, 끝ms, "단어"], ...]. 모양이 다른 항목은 건너뜁니다. */
+    private static void readWords(@NonNull JsonReader in, @NonNull WordTimings.Builder words) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                continue;
+            }
+            in.beginArray();
+            long start = -1L;
+            long end = -1L;
+            String word = null;
+            for (int i = 0; in.hasNext(); i++) {
+                JsonToken t = in.peek();
+                if (i == 0 && t == JsonToken.NUMBER) start = in.nextLong();
+                else if (i == 1 && t == JsonToken.NUMBER) end = in.nextLong();
+                else if (i == 2 && t == JsonToken.STRING) word = in.nextString();
+                else in.skipValue();
+            }
+            in.endArray();
+            if (word != null && start >= 0) words.add(word, start, Math.max(start, end));
+        }
+        in.endArray();
+    }
+
+    @Override
+    public void write(JsonWriter out, ClovaSpeechResponse value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("text").value(value.text);
+        out.name("segments").beginArray();
+        WordTimings words = value.words != null ? value.words : WordTimings.EMPTY;
+        if (value.segments != null) {
+            for (TranscriptSegment s : value.segments) {
+                out.beginObject();
+                out.name("text").value(s.text);
+                out.name("start").value(s.startMs);
+                out.name("end").value(s.endMs);
+                out.name("words").beginArray();
+                for (int i = words.firstIndexFrom(s.startMs); i < words.size() && words.startMs(i) < s.endMs; i++) {
+                    out.beginArray().value(words.startMs(i)).value(words.endMs(i)).value(words.word(i)).endArray();
+                }
+                out.endArray();
+                out.endObject();
+            }
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.diallog.data.network;
 
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -20,6 +21,13 @@ public interface GoogleSttApi {
             @Body GoogleSttRequest request
     );
 
+    /** body는 Base64FileRequestBody처럼 직접 만든 JSON 스트림 */
+    @POST("v1/speech:longrunningrecognize")
+    Call<GoogleOperationResponse> longRunningRecognizeStream(
+            @Header("Authorization") String bearerToken,
+            @Body RequestBody body
+    );
+
     @GET("v1/operations/{name}")
     Call<GoogleOperationResponse> getOperation(
             @Header("Authorization") String bearerToken,
@@ -1,22 +1,18 @@
 package com.example.diallog.data.network;
 
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Google STT recognize 응답. results/alternatives/words 트리를 만들지 않고
+ * GoogleSttResponseAdapter가 파싱하면서 바로 구간과 단어 시각으로 바꿉니다.
+ */
+@JsonAdapter(GoogleSttResponseAdapter.class)
 public final class GoogleSttResponse {
-    public List<Result> results;
-
-    public static final class Result {
-        public List<Alternative> alternatives;
-        public String resultEndTime;
-    }
-
-    public static final class Alternative {
-        public String transcript;
-        public List<WordInfo> words;
-    }
-    public static final class WordInfo {
-        public String word;
-        public String startTime;
-        public String endTime;
-    }
-}
\ No newline at end of file
+    public List<TranscriptSegment> segments = Collections.emptyList();
+    public WordTimings words = WordTimings.EMPTY;
+}
@@ -0,0 +1,309 @@
+package com.example.diallog.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GoogleSttResponse를 JsonReader로 한 번 읽으면서 구간 목록과 단어 시각(WordTimings)을 만듭니다.
+ * 단어(WordInfo)마다 객체를 만들지 않고 열 단위 배열에 바로 쌓으며, 모르는 필드는 문자열도 만들지 않고 건너뜁니다.
+ * 단어 시각은 result마다 첫 번째(가장 유력한) alternative의 것만 씁니다.
+ * 구간 규칙은 예전 mapResponse와 같습니다.
+ * - 단어 시각이 있으면 첫 단어 시작 ~ 마지막 단어 끝(없으면 마지막 시작)
+ * - 없으면 직전 구간 끝에서 시작해 resultEndTime까지
+ * resultEndTime은 alternatives 뒤에 올 수도 있어 result 하나를 다 읽은 뒤 구간을 확정합니다.
+ */
+public final class GoogleSttResponseAdapter extends TypeAdapter<GoogleSttResponse> {
+
+    /** alternative 하나를 읽는 동안 모은 값 */
+    private static final class Pending {
+        final String transcript;
+        final long firstStart;
+        final long lastStart;
+        final long lastEnd;
+        final boolean hasWords;
+        final boolean foundTimestamps;
+
+        Pending(String transcript, long firstStart, long lastStart, long lastEnd,
+                boolean hasWords, boolean foundTimestamps) {
+            this.transcript = transcript;
+            this.firstStart = firstStart;
+            this.lastStart = lastStart;
+            this.lastEnd = lastEnd;
+            this.hasWords = hasWords;
+            this.foundTimestamps = foundTimestamps;
+        }
+    }
+
+    @Override
+    public GoogleSttResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<TranscriptSegment> out = new ArrayList<>();
+        List<Pending> pending = new ArrayList<>(2);
+        WordTimings.Builder words = new WordTimings.Builder();
+        long lastEndMs = 0L;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!"results".equals(in.nextName()) || in.peek() == JsonToken.NULL) {
+                in.skipValue();
+                continue;
+            }
+            in.beginArray();
+            while (in.hasNext()) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                lastEndMs = readResult(in, pending, out, words, lastEndMs);
+            }
+            in.endArray();
+        }
+        in.endObject();
+
+        GoogleSttResponse response = new GoogleSttResponse();
+        response.segments = out;
+        response.words = words.build();
+        return response;
+    }
+
+    /** result 하나를 읽고 구간을 out에 더합니다. 갱신된 마지막 끝 시각을 돌려줍니다. */
+    private static long readResult(@NonNull JsonReader in,
+                                   @NonNull List<Pending> pending,
+                                   @NonNull List<TranscriptSegment> out,
+                                   @NonNull WordTimings.Builder words,
+                                   long lastEndMs) throws IOException {
+        pending.clear();
+        boolean hasAlternatives = false;
+        long resultEndMs = -1L;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("alternatives".equals(name) && in.peek() != JsonToken.NULL) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    Pending p = readAlternative(in, hasAlternatives ? null : words);
+                    hasAlternatives = true;
+                    if (p != null) pending.add(p);
+                }
+                in.endArray();
+            } else if ("resultEndTime".equals(name)) {
+                resultEndMs = parseDurationMillis(nextStringOrNull(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // alternatives가 없는 result는 시각 진행에도 반영하지 않습니다.
+        if (!hasAlternatives) return lastEndMs;
+
+        for (Pending p : pending) {
+            long startMs = lastEndMs;
+            long endMs = lastEndMs;
+            if (p.hasWords) {
+                if (p.firstStart >= 0) startMs = p.firstStart;
+                long candidateEnd = p.lastEnd >= 0 ? p.lastEnd : p.lastStart;
+                if (candidateEnd >= 0) endMs = candidateEnd;
+            }
+            if ((!p.hasWords || !p.foundTimestamps) && resultEndMs >= 0) {
+                endMs = Math.max(resultEndMs, startMs);
+            }
+            if (endMs < startMs) endMs = startMs;
+
+            out.add(new TranscriptSegment(startMs, endMs, p.transcript));
+            if (endMs > lastEndMs) lastEndMs = endMs;
+        }
+        if (resultEndMs > lastEndMs) lastEndMs = resultEndMs;
+        return lastEndMs;
+    }
+
+    /**
+     * 비어 있거나 null인 alternative는 null.
+     * @param words null이 아니면 이 alternative의 단어 시각을 여기에 더합니다.
+     */
+    @Nullable
+    private static Pending readAlternative(@NonNull JsonReader in,
+                                           @Nullable WordTimings.Builder words) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String transcript = null;
+        long firstStart = -1L;
+        long lastStart = -1L;
+        long lastEnd = -1L;
+        boolean hasWords = false;
+        boolean found = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("transcript".equals(name)) {
+                transcript = nextStringOrNull(in);
+            } else if ("words".equals(name) && in.peek() != JsonToken.NULL) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    hasWords = true;
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    long wordStart = -1L;
+                    long wordEnd = -1L;
+                    String word = null;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String field = in.nextName();
+                        if ("word".equals(field) && words != null) {
+                            word = nextStringOrNull(in);
+                        } else if ("startTime".equals(field)) {
+                            wordStart = parseDurationMillis(nextStringOrNull(in));
+                        } else if ("endTime".equals(field)) {
+                            wordEnd = parseDurationMillis(nextStringOrNull(in));
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+
+                    if (wordStart >= 0 && firstStart < 0) firstStart = wordStart;
+                    if (wordEnd >= 0) lastEnd = wordEnd;
+                    if (wordStart >= 0) lastStart = wordStart;
+                    if (wordStart >= 0 || wordEnd >= 0) {
+                        found = true;
+                        if (words != null && word != null) {
+                            words.add(word, wordStart >= 0 ? wordStart : wordEnd, wordEnd >= 0 ? wordEnd : wordStart);
+                        }
+                    }
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        String trimmed = transcript != null ? transcript.trim() : "";
+        if (trimmed.isEmpty()) return null;
+        return new Pending(trimmed, firstStart, lastStart, lastEnd, hasWords, found);
+    }
+
+    @Override
+    public void write(JsonWriter out, GoogleSttResponse value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        // 읽으면 같은 구간이 나오도록 구간마다 result 하나로 쓰고, 단어 시각은 구간 안에 드는 것을 붙입니다.
+        // 구간 안에 단어가 없으면 구간 시작/끝을 단어 하나로 씁니다.
+        WordTimings words = value.words != null ? value.words : WordTimings.EMPTY;
+        out.beginObject().name("results").beginArray();
+        if (value.segments != null) {
+            for (TranscriptSegment s : value.segments) {
+                out.beginObject().name("alternatives").beginArray().beginObject();
+                out.name("transcript").value(s.text);
+                out.name("words").beginArray();
+                int from = words.firstIndexFrom(s.startMs);
+                int to = from;
+                while (to < words.size() && (to == from || words.startMs(to) < s.endMs)) to++;
+                if (from < to && words.startMs(from) == s.startMs && words.endMs(to - 1) == s.endMs) {
+                    for (int i = from; i < to; i++) {
+                        out.beginObject();
+                        out.name("startTime").value(formatDuration(words.startMs(i)));
+                        out.name("endTime").value(formatDuration(words.endMs(i)));
+                        out.name("word").value(words.word(i));
+                        out.endObject();
+                    }
+                } else {
+                    out.beginObject();
+                    out.name("startTime").value(formatDuration(s.startMs));
+                    out.name("endTime").value(formatDuration(s.endMs));
+                    out.endObject();
+                }
+                out.endArray();
+                out.endObject().endArray().endObject();
+            }
+        }
+        out.endArray().endObject();
+    }
+
+    @Nullable
+    private static String nextStringOrNull(@NonNull JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * "1.500s" 형식의 protobuf Duration을 ms로 바꿉니다(반올림). 읽을 수 없으면 -1.
+     * 흔한 "초.소수s" 형식은 직접 읽고, 그 밖의 형식만 BigDecimal로 처리합니다.
+     */
+    static long parseDurationMillis(@Nullable String duration) {
+        if (duration == null) return -1L;
+        String s = duration.trim();
+        int end = s.length();
+        if (end > 0 && (s.charAt(end - 1) == 's' || s.charAt(end - 1) == 'S')) end--;
+        if (end == 0) return -1L;
+
+        int i = 0;
+        long seconds = 0L;
+        while (i < end && i < 12 && isDigit(s.charAt(i))) {
+            seconds = seconds * 10 + (s.charAt(i) - '0');
+            i++;
+        }
+        if (i == 0) return parseDurationSlow(s, end);
+        long millis = seconds * 1000L;
+        if (i < end && s.charAt(i) == '.') {
+            i++;
+            int scale = 100;
+            int digits = 0;
+            while (i < end && isDigit(s.charAt(i))) {
+                int d = s.charAt(i) - '0';
+                if (digits < 3) millis += d * scale;
+                else if (digits == 3 && d >= 5) millis++;   // HALF_UP
+                scale /= 10;
+                digits++;
+                i++;
+            }
+        }
+        return i == end ? millis : parseDurationSlow(s, end);
+    }
+
+    private static long parseDurationSlow(@NonNull String s, int end) {
+        try {
+            BigDecimal seconds = new BigDecimal(s.substring(0, end));
+            return seconds.multiply(BigDecimal.valueOf(1000L)).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return -1L;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @NonNull
+    private static String formatDuration(long ms) {
+        return String.format(Locale.US, "%d.%03ds", ms / 1000L, ms % 1000L);
+    }
+}
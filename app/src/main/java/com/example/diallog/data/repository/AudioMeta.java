@@ -0,0 +1,30 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * AudioMeta
+ * - 파일 하나를 한 번 probe해서 얻은 오디오 정보. 알 수 없는 값은 0 / null.
+ */
+final class AudioMeta {
+    final long durationMs;
+    final int sampleRateHz;
+    final int channelCount;
+    @Nullable final String codecMime;   // 예: "audio/mp4a-latm", "audio/3gpp"
+
+    AudioMeta(long durationMs, int sampleRateHz, int channelCount, @Nullable String codecMime) {
+        this.durationMs = durationMs;
+        this.sampleRateHz = sampleRateHz;
+        this.channelCount = channelCount;
+        this.codecMime = codecMime;
+    }
+
+    @NonNull @Override
+    public String toString() {
+        return "AudioMeta{durationMs=" + durationMs +
+                ", sampleRateHz=" + sampleRateHz +
+                ", channels=" + channelCount +
+                ", codec=" + codecMime + '}';
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.diallog.data.repository;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AudioMetaEnricher
+ * - 길이를 모르는 레코드(SAF)를 제한된 병렬도로 probe해서 길이/샘플레이트/채널/코덱을 채웁니다.
+ * - 결과는 AudioMetaStore에 저장되어 다음 스캔과 전사 경로에서 다시 probe하지 않습니다.
+ */
+final class AudioMetaEnricher {
+    private static final String TAG = "AudioMeta";
+    private static final int BATCH_SIZE = 16;   // 이만큼 모이면 중간 결과를 전달
+
+    interface Callback {
+        /** probe가 끝난 레코드들 (길이가 채워진 사본). probe 스레드에서 호출됩니다. */
+        void onEnriched(@NonNull List<CallRecord> updated);
+
+        /** enqueue 한 번으로 넣은 항목이 모두 끝났을 때 마지막 onEnriched 다음에 한 번 호출됩니다. */
+        default void onDrained() {}
+    }
+
+    private final Context app;
+    private final AudioMetaStore store;
+    private final ExecutorService pool;
+    private final Set<Uri> inFlight = ConcurrentHashMap.newKeySet();
+
+    AudioMetaEnricher(@NonNull Context context, @NonNull AudioMetaStore store, int parallelism) {
+        this.app = context.getApplicationContext();
+        this.store = store;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    /** 저장된 메타데이터로 채울 수 있는 항목은 바로 채운 새 목록을 돌려줍니다 (probe 없음). */
+    @NonNull
+    List<CallRecord> applyKnown(@NonNull List<CallRecord> records) {
+        List<CallRecord> out = new ArrayList<>(records.size());
+        int hits = 0;
+        for (CallRecord cr : records) {
+            if (cr.durationMs <= 0) {
+                AudioMeta meta = store.find(cr.uri, cr.sizeBytes, cr.startedAtEpochMs);
+                if (meta != null && meta.durationMs > 0) {
+                    out.add(cr.withDuration(meta.durationMs));
+                    hits++;
+                    continue;
+                }
+            }
+            out.add(cr);
+        }
+        if (hits > 0) Log.i(TAG, "applyKnown: hits=" + hits + "/" + records.size());
+        return out;
+    }
+
+    /** 길이를 모르는 항목을 백그라운드에서 probe합니다. 이미 진행 중인 uri는 건너뜁니다. */
+    void enqueue(@NonNull List<CallRecord> records, @NonNull Callback callback) {
+        final List<CallRecord> todo = new ArrayList<>();
+        for (CallRecord cr : records) {
+            if (cr.durationMs <= 0 && inFlight.add(cr.uri)) todo.add(cr);
+        }
+        if (todo.isEmpty()) return;
+        Log.i(TAG, "enqueue: " + todo.size() + " files");
+
+        final AtomicInteger remaining = new AtomicInteger(todo.size());
+        final ConcurrentLinkedQueue<CallRecord> done = new ConcurrentLinkedQueue<>();
+        for (CallRecord cr : todo) {
+            pool.execute(() -> {
+                try {
+                    AudioMeta meta = store.find(cr.uri, cr.sizeBytes, cr.startedAtEpochMs);
+                    if (meta == null) {
+                        meta = probe(app, cr.uri);
+                        if (meta != null) store.put(cr.uri, cr.sizeBytes, cr.startedAtEpochMs, meta);
+                    }
+                    if (meta != null && meta.durationMs > 0) done.add(cr.withDuration(meta.durationMs));
+                } finally {
+                    inFlight.remove(cr.uri);
+                    boolean last = remaining.decrementAndGet() == 0;
+                    if (last || done.size() >= BATCH_SIZE) deliver(done, callback);
+                    if (last) {
+                        store.flush();
+                        drained(callback);
+                    }
+                }
+            });
+        }
+    }
+
+    /** 같은 enqueue의 전달은 done으로 직렬화해, onDrained가 모든 onEnriched 뒤에 오도록 합니다. */
+    private static void deliver(@NonNull ConcurrentLinkedQueue<CallRecord> done, @NonNull Callback callback) {
+        synchronized (done) {
+            List<CallRecord> batch = new ArrayList<>();
+            CallRecord cr;
+            while ((cr = done.poll()) != null) batch.add(cr);
+            if (batch.isEmpty()) return;
+            try {
+                callback.onEnriched(batch);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "deliver: callback failed", e);
+            }
+        }
+    }
+
+    private static void drained(@NonNull Callback callback) {
+        try {
+            callback.onDrained();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "drained: callback failed", e);
+        }
+    }
+
+    /**
+     * 전사 경로용: 저장된 값이 있으면 그대로, 없으면 probe 후 저장합니다.
+     * 파일 상태(크기/수정 시각)를 읽을 수 없으면 저장하지 않고 probe 결과만 돌려줍니다.
+     */
+    @Nullable
+    static AudioMeta getOrProbe(@NonNull Context context, @NonNull Uri uri) {
+        final AudioMetaStore store = AudioMetaStore.get(context);
+        final long[] stat = stat(context, uri);
+        if (stat != null) {
+            AudioMeta known = store.find(uri, stat[0], stat[1]);
+            if (known != null) return known;
+        }
+        AudioMeta meta = probe(context, uri);
+        if (meta != null && stat != null) {
+            store.put(uri, stat[0], stat[1], meta);
+            store.flush();
+        }
+        return meta;
+    }
+
+    /** {크기, 수정 시각(ms)}. 알 수 없으면 null. 스캔 시 CallRecord.sizeBytes/startedAtEpochMs와 같은 기준입니다. */
+    @Nullable
+    static long[] stat(@NonNull Context context, @NonNull Uri uri) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            File f = new File(uri.getPath());
+            return f.exists() ? new long[] { f.length(), f.lastModified() } : null;
+        }
+        final boolean mediaStore = MediaStore.AUTHORITY.equals(uri.getAuthority());
+        final String mtimeColumn;
+        if (mediaStore) {
+            mtimeColumn = MediaStore.MediaColumns.DATE_MODIFIED;
+        } else if (DocumentsContract.isDocumentUri(context, uri)) {
+            mtimeColumn = DocumentsContract.Document.COLUMN_LAST_MODIFIED;
+        } else {
+            return null;
+        }
+        String[] proj = { OpenableColumns.SIZE, mtimeColumn };
+        try (Cursor c = context.getContentResolver().query(uri, proj, null, null, null)) {
+            if (c == null || !c.moveToFirst() || c.isNull(0)) return null;
+            long size = c.getLong(0);
+            long mtime = c.isNull(1) ? 0L : c.getLong(1);
+            return new long[] { size, mediaStore ? mtime * 1000L : mtime };
+        } catch (RuntimeException e) {
+            Log.w(TAG, "stat: failed uri=" + uri, e);
+            return null;
+        }
+    }
+
+    /** 오디오 트랙 포맷에서 정보를 읽고, 길이가 없으면 MediaMetadataRetriever로 보충합니다. */
+    @Nullable
+    static AudioMeta probe(@NonNull Context context, @NonNull Uri uri) {
+        long durationMs = 0L;
+        int sampleRate = 0;
+        int channels = 0;
+        String codec = null;
+
+        MediaExtractor extractor = new MediaExtractor();
+        try {
+            extractor.setDataSource(context, uri, null);
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat format = extractor.getTrackFormat(i);
+                String mime = format.getString(MediaFormat.KEY_MIME);
+                if (mime == null || !mime.startsWith("audio/")) continue;
+                codec = mime;
+                if (format.containsKey(MediaFormat.KEY_SAMPLE_RATE)) {
+                    sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                }
+                if (format.containsKey(MediaFormat.KEY_CHANNEL_COUNT)) {
+                    channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                }
+                if (format.containsKey(MediaFormat.KEY_DURATION)) {
+                    durationMs = format.getLong(MediaFormat.KEY_DURATION) / 1000L;
+                }
+                break;
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "probe: extractor failed uri=" + uri, e);
+        } finally {
+            extractor.release();
+        }
+
+        if (durationMs <= 0) {
+            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+            try {
+                retriever.setDataSource(context, uri);
+                String dur = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+                if (!TextUtils.isEmpty(dur)) durationMs = Long.parseLong(dur);
+                if (sampleRate <= 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+                    String sr = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_SAMPLERATE);
+                    if (!TextUtils.isEmpty(sr)) sampleRate = Integer.parseInt(sr);
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "probe: retriever failed uri=" + uri, e);
+            } finally {
+                try {
+                    retriever.release();
+                } catch (Exception ignore) {
+                }
+            }
+        }
+
+        if (durationMs <= 0 && sampleRate <= 0 && codec == null) return null;
+        return new AudioMeta(durationMs, sampleRate, channels, codec);
+    }
+}
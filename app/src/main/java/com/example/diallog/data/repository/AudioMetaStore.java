@@ -0,0 +1,146 @@
+package com.example.diallog.data.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AudioMetaStore
+ * - probe 결과(AudioMeta)를 uri + 크기 + 수정 시각 기준으로 보관합니다. 파일이 바뀌면 자동으로 무효가 됩니다.
+ * - 목록 스캔과 전사 경로가 같은 파일을 공유하므로 프로세스당 하나의 인스턴스만 사용합니다.
+ *
+ * 포맷: MAGIC, VERSION, count, [uri, size, mtime, durationMs, sampleRate, channels, codec]*
+ */
+final class AudioMetaStore {
+    private static final String TAG = "AudioMetaStore";
+    private static final String FILE_NAME = "audio_meta.bin";
+    private static final int MAGIC = 0x444C414D; // "DLAM"
+    private static final int VERSION = 1;
+
+    @Nullable private static AudioMetaStore shared;
+
+    @NonNull
+    static synchronized AudioMetaStore get(@NonNull Context context) {
+        if (shared == null) shared = new AudioMetaStore(context.getApplicationContext());
+        return shared;
+    }
+
+    private static final class Entry {
+        final long size;
+        final long mtime;
+        final AudioMeta meta;
+
+        Entry(long size, long mtime, AudioMeta meta) {
+            this.size = size;
+            this.mtime = mtime;
+            this.meta = meta;
+        }
+    }
+
+    private final AtomicFile file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile boolean loaded = false;
+
+    private AudioMetaStore(@NonNull Context app) {
+        this.file = new AtomicFile(new File(app.getFilesDir(), FILE_NAME));
+    }
+
+    /** 크기/수정 시각이 저장 당시와 같을 때만 돌려줍니다. */
+    @Nullable
+    AudioMeta find(@NonNull Uri uri, long size, long mtime) {
+        ensureLoaded();
+        Entry e = entries.get(uri.toString());
+        if (e == null || e.size != size || e.mtime != mtime) return null;
+        return e.meta;
+    }
+
+    void put(@NonNull Uri uri, long size, long mtime, @NonNull AudioMeta meta) {
+        ensureLoaded();
+        entries.put(uri.toString(), new Entry(size, mtime, meta));
+        dirty.set(true);
+    }
+
+    /** 바뀐 내용이 있으면 파일에 씁니다. probe 묶음이 끝날 때 호출합니다. */
+    void flush() {
+        if (!dirty.getAndSet(false)) return;
+        List<Map.Entry<String, Entry>> rows = new ArrayList<>(entries.entrySet());
+        synchronized (file) {
+            FileOutputStream fos = null;
+            try {
+                fos = file.startWrite();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(rows.size());
+                for (Map.Entry<String, Entry> row : rows) {
+                    Entry e = row.getValue();
+                    out.writeUTF(row.getKey());
+                    out.writeLong(e.size);
+                    out.writeLong(e.mtime);
+                    out.writeLong(e.meta.durationMs);
+                    out.writeInt(e.meta.sampleRateHz);
+                    out.writeInt(e.meta.channelCount);
+                    out.writeBoolean(e.meta.codecMime != null);
+                    if (e.meta.codecMime != null) out.writeUTF(e.meta.codecMime);
+                }
+                out.flush();
+                file.finishWrite(fos);
+                Log.i(TAG, "flush: entries=" + rows.size());
+            } catch (IOException e) {
+                Log.w(TAG, "flush: failed", e);
+                if (fos != null) file.failWrite(fos);
+                dirty.set(true);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (file) {
+            if (loaded) return;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String uri = in.readUTF();
+                        long size = in.readLong();
+                        long mtime = in.readLong();
+                        long durationMs = in.readLong();
+                        int sampleRate = in.readInt();
+                        int channels = in.readInt();
+                        String codec = in.readBoolean() ? in.readUTF() : null;
+                        entries.putIfAbsent(uri, new Entry(size, mtime,
+                                new AudioMeta(durationMs, sampleRate, channels, codec)));
+                    }
+                    Log.i(TAG, "load: entries=" + count);
+                } else {
+                    Log.w(TAG, "load: unsupported format");
+                }
+            } catch (FileNotFoundException e) {
+                // 아직 저장된 적 없음
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "load: corrupted store, ignoring", e);
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import retrofit2.Call;
+
+/**
+ * 한 전사 시도의 범위. 그 안에서 만든 HTTP 호출을 모아 두었다가 한꺼번에 취소하고, 진행 단계를 리스너로 전달합니다.
+ * 스레드 인터럽트만으로는 소켓 읽기에서 막힌 OkHttp 호출이 풀리지 않기 때문에 Call.cancel()이 필요합니다.
+ * 시도를 실행하는 스레드에 call()로 설치하고, 전사기들은 execute() 직전에 track()으로 등록합니다.
+ * 부모가 있으면 부모가 취소될 때 함께 취소되고, 리스너를 따로 주지 않으면 부모의 것을 씁니다.
+ */
+public final class CallCanceller {
+    private static final ThreadLocal<CallCanceller> CURRENT = new ThreadLocal<>();
+
+    @Nullable private final TranscriptionListener listener;
+    private final List<Call<?>> calls = new ArrayList<>();
+    private final List<CallCanceller> children = new ArrayList<>();
+    private boolean cancelled;
+
+    public CallCanceller() {
+        this(null, null);
+    }
+
+    public CallCanceller(@Nullable CallCanceller parent, @Nullable TranscriptionListener listener) {
+        this.listener = listener != null ? listener : (parent != null ? parent.listener : null);
+        if (parent != null) parent.addChild(this);
+    }
+
+    /** 현재 스레드에 설치된 범위. 없으면 null. */
+    @Nullable
+    public static CallCanceller current() {
+        return CURRENT.get();
+    }
+
+    /** 현재 스레드의 범위에 호출을 등록합니다. 이미 취소됐으면 호출도 바로 취소됩니다. */
+    @NonNull
+    public static <T> Call<T> track(@NonNull Call<T> call) {
+        CallCanceller c = CURRENT.get();
+        if (c != null) c.add(call);
+        return call;
+    }
+
+    /** 현재 범위의 리스너에 진행 단계를 알립니다. 범위나 리스너가 없으면 무시합니다. */
+    public static void emit(@NonNull TranscriptionListener.Stage stage, long done, long total) {
+        CallCanceller c = CURRENT.get();
+        if (c != null && c.listener != null) c.listener.onStage(stage, done, total);
+    }
+
+    /** owner를 현재 스레드에 설치한 채로 work를 실행합니다. owner가 null이면 그냥 실행합니다. */
+    public static <T> T runWith(@Nullable CallCanceller owner, @NonNull Callable<T> work) throws Exception {
+        CallCanceller previous = CURRENT.get();
+        CURRENT.set(owner);
+        try {
+            return work.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public <T> T call(@NonNull Callable<T> work) throws Exception {
+        return runWith(this, work);
+    }
+
+    @Nullable
+    public TranscriptionListener listener() {
+        return listener;
+    }
+
+    public void cancel() {
+        List<Call<?>> snapshot;
+        List<CallCanceller> kids;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            snapshot = new ArrayList<>(calls);
+            kids = new ArrayList<>(children);
+            calls.clear();
+            children.clear();
+        }
+        for (Call<?> c : snapshot) c.cancel();
+        for (CallCanceller k : kids) k.cancel();
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void add(@NonNull Call<?> call) {
+        synchronized (this) {
+            if (!cancelled) {
+                calls.add(call);
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    private void addChild(@NonNull CallCanceller child) {
+        synchronized (this) {
+            if (!cancelled) {
+                children.add(child);
+                return;
+            }
+        }
+        child.cancel();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.diallog.data.repository;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+/**
+ * CallChange
+ * - 단일 항목 변경 알림을 저장소에 반영한 결과입니다.
+ * - UPSERT: record가 추가/갱신됨, DELETE: uri가 목록에서 빠짐, NONE: 목록과 무관한 변경.
+ */
+public final class CallChange {
+    public enum Kind { UPSERT, DELETE, NONE }
+
+    @NonNull public final Kind kind;
+    @NonNull public final Uri uri;
+    @Nullable public final CallRecord record;   // UPSERT일 때만
+
+    private CallChange(@NonNull Kind kind, @NonNull Uri uri, @Nullable CallRecord record) {
+        this.kind = kind;
+        this.uri = uri;
+        this.record = record;
+    }
+
+    @NonNull
+    static CallChange upsert(@NonNull CallRecord record) {
+        return new CallChange(Kind.UPSERT, record.uri, record);
+    }
+
+    @NonNull
+    static CallChange delete(@NonNull Uri uri) {
+        return new CallChange(Kind.DELETE, uri, null);
+    }
+
+    @NonNull
+    static CallChange none(@NonNull Uri uri) {
+        return new CallChange(Kind.NONE, uri, null);
+    }
+
+    @NonNull @Override
+    public String toString() {
+        return "CallChange{" + kind + ", uri=" + uri + '}';
+    }
+}
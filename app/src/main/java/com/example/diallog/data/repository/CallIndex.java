@@ -0,0 +1,175 @@
+package com.example.diallog.data.repository;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CallIndex
+ * - 한 시점의 통화 목록을 담는 불변 인덱스. 만든 뒤에는 바뀌지 않으므로 락 없이 읽습니다.
+ * - uri → 레코드 해시(O(1)), 시작 시각/길이 정렬 배열(이진 탐색, O(log n)), 폴더별 목록을 함께 둡니다.
+ * - 목록이 바뀌면 새 인덱스를 만들어 volatile 참조를 교체합니다.
+ */
+final class CallIndex {
+    static final CallIndex EMPTY = new CallIndex(Collections.emptyList());
+
+    private static final Comparator<CallRecord> BY_START =
+            (a, b) -> Long.compare(a.startedAtEpochMs, b.startedAtEpochMs);
+    private static final Comparator<CallRecord> BY_DURATION =
+            (a, b) -> Long.compare(a.durationMs, b.durationMs);
+
+    private final List<CallRecord> newestFirst;
+    private final Map<Uri, CallRecord> byUri;
+    private final CallRecord[] byStart;      // 시작 시각 오름차순
+    private final long[] startKeys;
+    private final CallRecord[] byDuration;   // 길이 오름차순
+    private final long[] durationKeys;
+    private final Map<String, List<CallRecord>> byFolder;  // 폴더별 최신순
+
+    /** @param newestFirst 최신순으로 정렬된, uri 중복 없는 목록 */
+    CallIndex(@NonNull List<CallRecord> newestFirst) {
+        this.newestFirst = Collections.unmodifiableList(new ArrayList<>(newestFirst));
+        final int n = this.newestFirst.size();
+
+        this.byUri = new HashMap<>(Math.max(16, n * 4 / 3 + 1));
+        Map<String, List<CallRecord>> folders = new HashMap<>();
+        for (CallRecord cr : this.newestFirst) {
+            byUri.put(cr.uri, cr);
+            if (cr.folder != null) {
+                List<CallRecord> list = folders.get(cr.folder);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    folders.put(cr.folder, list);
+                }
+                list.add(cr);
+            }
+        }
+        for (Map.Entry<String, List<CallRecord>> e : folders.entrySet()) {
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+        }
+        this.byFolder = folders;
+
+        this.byStart = this.newestFirst.toArray(new CallRecord[0]);
+        Arrays.sort(byStart, BY_START);
+        this.startKeys = new long[n];
+        for (int i = 0; i < n; i++) startKeys[i] = byStart[i].startedAtEpochMs;
+
+        this.byDuration = this.newestFirst.toArray(new CallRecord[0]);
+        Arrays.sort(byDuration, BY_DURATION);
+        this.durationKeys = new long[n];
+        for (int i = 0; i < n; i++) durationKeys[i] = byDuration[i].durationMs;
+    }
+
+    int size() { return newestFirst.size(); }
+
+    /** 최신순 전체 목록 (읽기 전용) */
+    @NonNull
+    List<CallRecord> newestFirst() { return newestFirst; }
+
+    @Nullable
+    CallRecord get(@NonNull Uri uri) { return byUri.get(uri); }
+
+    @NonNull
+    Set<String> folders() { return Collections.unmodifiableSet(byFolder.keySet()); }
+
+    @NonNull
+    List<CallRecord> recent(int offset, int limit) {
+        int to = (int) Math.min(newestFirst.size(), (long) offset + limit);
+        if (offset < 0 || offset >= to) return Collections.emptyList();
+        return new ArrayList<>(newestFirst.subList(offset, to));
+    }
+
+    /**
+     * 조건 중 후보가 가장 적은 인덱스로 범위를 좁힌 뒤 나머지 조건으로 거릅니다.
+     * 폴더 → 시작 시각 범위 → 길이 범위 순으로 후보 수를 비교합니다.
+     */
+    @NonNull
+    List<CallRecord> query(@NonNull CallQuery q) {
+        if (q.limit <= 0) return Collections.emptyList();
+
+        if (q.folder != null) {
+            List<CallRecord> inFolder = byFolder.get(q.folder);
+            return inFolder == null ? Collections.emptyList() : q.filter(inFolder);
+        }
+
+        int startLo = 0, startHi = startKeys.length;
+        if (q.hasTimeRange()) {
+            if (q.fromEpochMs != CallQuery.ANY) startLo = lowerBound(startKeys, q.fromEpochMs);
+            if (q.toEpochMs != CallQuery.ANY) startHi = lowerBound(startKeys, q.toEpochMs);
+        }
+        int durLo = 0, durHi = durationKeys.length;
+        if (q.hasDurationRange()) {
+            if (q.minDurationMs != CallQuery.ANY) durLo = lowerBound(durationKeys, q.minDurationMs);
+            if (q.maxDurationMs != CallQuery.ANY) durHi = upperBound(durationKeys, q.maxDurationMs);
+        }
+        if (startLo >= startHi || durLo >= durHi) return Collections.emptyList();
+
+        if (!q.hasTimeRange() && !q.hasDurationRange()) {
+            return recent(0, q.limit);
+        }
+        if (q.hasTimeRange() && (startHi - startLo) <= (durHi - durLo)) {
+            // 시작 시각 오름차순이므로 뒤에서부터 읽으면 최신순
+            List<CallRecord> out = new ArrayList<>(Math.min(q.limit, startHi - startLo));
+            for (int i = startHi - 1; i >= startLo && out.size() < q.limit; i--) {
+                if (q.matches(byStart[i])) out.add(byStart[i]);
+            }
+            return out;
+        }
+        // 길이 범위가 더 좁음: 후보 전체를 거른 뒤 최신순으로 정렬
+        List<CallRecord> out = new ArrayList<>(durHi - durLo);
+        for (int i = durLo; i < durHi; i++) {
+            if (q.matches(byDuration[i])) out.add(byDuration[i]);
+        }
+        out.sort((a, b) -> Long.compare(b.startedAtEpochMs, a.startedAtEpochMs));
+        return out.size() > q.limit ? new ArrayList<>(out.subList(0, q.limit)) : out;
+    }
+
+    /** key 이상인 첫 위치 */
+    private static int lowerBound(long[] keys, long key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** key 초과인 첫 위치 */
+    private static int upperBound(long[] keys, long key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * 폴더 표기를 통일합니다: 볼륨 접두사("primary:", "/storage/emulated/0/")와 앞뒤 '/'를 제거.
+     * MediaStore RELATIVE_PATH("Recordings/Call/")와 SAF 문서 ID("primary:Recordings/Call")가 같은 값이 됩니다.
+     */
+    @Nullable
+    static String normalizeFolder(@Nullable String raw) {
+        if (raw == null) return null;
+        String s = raw;
+        int colon = s.indexOf(':');
+        int slash = s.indexOf('/');
+        if (colon >= 0 && (slash < 0 || slash > colon)) s = s.substring(colon + 1);
+        s = s.replaceFirst("^/storage/(emulated/\\d+|[^/]+)/", "");
+        while (s.startsWith("/")) s = s.substring(1);
+        while (s.endsWith("/")) s = s.substring(0, s.length() - 1);
+        return s;
+    }
+}
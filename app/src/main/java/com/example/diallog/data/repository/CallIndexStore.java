@@ -0,0 +1,128 @@
+package com.example.diallog.data.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CallIndexStore
+ * - 마지막 스캔 결과(CallRecord + 출처)를 앱 내부 저장소에 바이너리로 보관합니다.
+ * - 콜드 스타트 시 전체 스캔을 기다리지 않고 목록을 먼저 보여주기 위한 용도입니다.
+ * - 여러 스레드(스캔, SAF 이어 읽기, 메타데이터 보강, 변경 알림)가 저장하므로 쓰기는 직렬화하고,
+ *   게시 순번이 이미 저장한 것보다 오래된 스냅샷은 버립니다.
+ *
+ * 포맷: MAGIC, VERSION, dirUri, count, [source, uri, fileName, durationMs, startedAt, folder, size]*
+ */
+final class CallIndexStore {
+    private static final String TAG = "CallIndex";
+    private static final String FILE_NAME = "call_index.bin";
+    private static final int MAGIC = 0x444C4349; // "DLCI"
+    private static final int VERSION = 1;
+
+    static final class Snapshot {
+        @Nullable final Uri dirUri;
+        @NonNull final List<CallRecord> records;
+
+        Snapshot(@Nullable Uri dirUri, @NonNull List<CallRecord> records) {
+            this.dirUri = dirUri;
+            this.records = records;
+        }
+    }
+
+    private final AtomicFile file;
+    private long savedSeq = -1L;  // this로 보호
+
+    CallIndexStore(@NonNull Context context) {
+        this.file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    /** 저장된 인덱스를 읽습니다. 없거나 손상된 경우 null. */
+    @Nullable
+    Snapshot load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.w(TAG, "load: unsupported format");
+                return null;
+            }
+            String dir = in.readUTF();
+            int count = in.readInt();
+            if (count < 0) return null;
+            List<CallRecord> records = new ArrayList<>(count);
+            CallRecord.Source[] sources = CallRecord.Source.values();
+            for (int i = 0; i < count; i++) {
+                int ordinal = in.readByte();
+                CallRecord.Source source = ordinal >= 0 && ordinal < sources.length
+                        ? sources[ordinal] : CallRecord.Source.UNKNOWN;
+                Uri uri = Uri.parse(in.readUTF());
+                String name = in.readBoolean() ? in.readUTF() : null;
+                long durationMs = in.readLong();
+                long startedAt = in.readLong();
+                String folder = in.readBoolean() ? in.readUTF() : null;
+                long size = in.readLong();
+                records.add(new CallRecord(uri, name, durationMs, startedAt, source, folder, size));
+            }
+            Log.i(TAG, "load: records=" + records.size());
+            return new Snapshot(dir.isEmpty() ? null : Uri.parse(dir), Collections.unmodifiableList(records));
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "load: corrupted index, ignoring", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param seq 스냅샷 게시 순번. 이미 저장한 순번 이하이면 더 새 목록이 저장된 것이므로 쓰지 않습니다.
+     */
+    synchronized void save(long seq, @Nullable Uri dirUri, @NonNull List<CallRecord> records) {
+        if (seq <= savedSeq) {
+            Log.i(TAG, "save: skip stale seq=" + seq + " saved=" + savedSeq);
+            return;
+        }
+        FileOutputStream fos = null;
+        try {
+            fos = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(dirUri != null ? dirUri.toString() : "");
+            out.writeInt(records.size());
+            for (CallRecord cr : records) {
+                out.writeByte(cr.source.ordinal());
+                out.writeUTF(cr.uri.toString());
+                out.writeBoolean(cr.fileName != null);
+                if (cr.fileName != null) out.writeUTF(cr.fileName);
+                out.writeLong(cr.durationMs);
+                out.writeLong(cr.startedAtEpochMs);
+                out.writeBoolean(cr.folder != null);
+                if (cr.folder != null) out.writeUTF(cr.folder);
+                out.writeLong(cr.sizeBytes);
+            }
+            out.flush();
+            file.finishWrite(fos);
+            savedSeq = seq;
+            Log.i(TAG, "save: seq=" + seq + " records=" + records.size());
+        } catch (IOException e) {
+            Log.w(TAG, "save: failed", e);
+            if (fos != null) file.failWrite(fos);
+        }
+    }
+}
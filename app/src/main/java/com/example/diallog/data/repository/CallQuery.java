@@ -0,0 +1,82 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CallQuery
+ * - 통화 목록 필터: 시작 시각 범위 [fromEpochMs, toEpochMs), 길이 범위 [minDurationMs, maxDurationMs], 폴더.
+ * - 지정하지 않은 조건은 ANY 값을 사용합니다. 결과는 최신순이며 limit개까지 반환됩니다.
+ */
+public final class CallQuery {
+    public static final long ANY = -1L;
+
+    public final long fromEpochMs;
+    public final long toEpochMs;
+    public final long minDurationMs;
+    public final long maxDurationMs;
+    @Nullable public final String folder;
+    public final int limit;
+
+    public CallQuery(long fromEpochMs, long toEpochMs,
+                     long minDurationMs, long maxDurationMs,
+                     @Nullable String folder, int limit) {
+        this.fromEpochMs = fromEpochMs;
+        this.toEpochMs = toEpochMs;
+        this.minDurationMs = minDurationMs;
+        this.maxDurationMs = maxDurationMs;
+        this.folder = folder;
+        this.limit = limit;
+    }
+
+    /** 시작 시각 범위 [fromEpochMs, toEpochMs) */
+    @NonNull
+    public static CallQuery between(long fromEpochMs, long toEpochMs, int limit) {
+        return new CallQuery(fromEpochMs, toEpochMs, ANY, ANY, null, limit);
+    }
+
+    /** 길이 범위 [minDurationMs, maxDurationMs], 한쪽은 ANY 가능 */
+    @NonNull
+    public static CallQuery duration(long minDurationMs, long maxDurationMs, int limit) {
+        return new CallQuery(ANY, ANY, minDurationMs, maxDurationMs, null, limit);
+    }
+
+    @NonNull
+    public static CallQuery inFolder(@NonNull String folder, int limit) {
+        return new CallQuery(ANY, ANY, ANY, ANY, CallIndex.normalizeFolder(folder), limit);
+    }
+
+    boolean hasTimeRange() { return fromEpochMs != ANY || toEpochMs != ANY; }
+    boolean hasDurationRange() { return minDurationMs != ANY || maxDurationMs != ANY; }
+
+    boolean matches(@NonNull CallRecord cr) {
+        if (fromEpochMs != ANY && cr.startedAtEpochMs < fromEpochMs) return false;
+        if (toEpochMs != ANY && cr.startedAtEpochMs >= toEpochMs) return false;
+        if (minDurationMs != ANY && cr.durationMs < minDurationMs) return false;
+        if (maxDurationMs != ANY && cr.durationMs > maxDurationMs) return false;
+        return folder == null || folder.equals(cr.folder);
+    }
+
+    /** 인덱스가 없는 구현체용: 최신순 목록을 순서대로 거릅니다. */
+    @NonNull
+    List<CallRecord> filter(@NonNull List<CallRecord> newestFirst) {
+        List<CallRecord> out = new ArrayList<>();
+        for (CallRecord cr : newestFirst) {
+            if (out.size() >= limit) break;
+            if (matches(cr)) out.add(cr);
+        }
+        return out;
+    }
+
+    @NonNull @Override
+    public String toString() {
+        return "CallQuery{from=" + fromEpochMs + ", to=" + toEpochMs +
+                ", minDur=" + minDurationMs + ", maxDur=" + maxDurationMs +
+                ", folder=" + folder + ", limit=" + limit + '}';
+    }
+}
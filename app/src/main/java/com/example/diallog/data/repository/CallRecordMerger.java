@@ -0,0 +1,134 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * CallRecordMerger
+ * - 각각 최신순으로 정렬된 여러 출처를 하나의 최신순 스트림으로 합치는 k-way merge.
+ * - 출처는 필요할 때만 다음 항목을 읽으므로 전체 목록을 메모리에 올리지 않습니다.
+ */
+final class CallRecordMerger {
+
+    /** 최신순으로 정렬된 레코드 스트림 */
+    interface Source {
+        /** 다음 항목. 더 없으면 null. */
+        @Nullable CallRecord peek();
+        void advance();
+    }
+
+    private static final class Head {
+        final Source source;
+        final CallRecord record;
+        final int order; // 같은 시각일 때 출처 순서를 유지
+
+        Head(Source source, CallRecord record, int order) {
+            this.source = source;
+            this.record = record;
+            this.order = order;
+        }
+    }
+
+    private final PriorityQueue<Head> heads;
+    private int position;
+
+    CallRecordMerger(@NonNull List<? extends Source> sources) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+            int c = Long.compare(b.record.startedAtEpochMs, a.record.startedAtEpochMs);
+            return c != 0 ? c : Integer.compare(a.order, b.order);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            offer(sources.get(i), i);
+        }
+    }
+
+    /** 지금까지 꺼낸 항목 수 */
+    int position() { return position; }
+
+    @NonNull
+    List<CallRecord> take(int count) {
+        List<CallRecord> out = new ArrayList<>(Math.max(0, Math.min(count, 64)));
+        while (out.size() < count) {
+            CallRecord next = poll();
+            if (next == null) break;
+            out.add(next);
+        }
+        return out;
+    }
+
+    void skip(int count) {
+        for (int i = 0; i < count; i++) {
+            if (poll() == null) return;
+        }
+    }
+
+    @Nullable
+    private CallRecord poll() {
+        Head head = heads.poll();
+        if (head == null) return null;
+        head.source.advance();
+        offer(head.source, head.order);
+        position++;
+        return head.record;
+    }
+
+    private void offer(@NonNull Source source, int order) {
+        CallRecord next = source.peek();
+        if (next != null) heads.add(new Head(source, next, order));
+    }
+
+    /** 이미 정렬된 리스트 출처 */
+    static final class ListSource implements Source {
+        private final List<CallRecord> records;
+        private int index;
+
+        ListSource(@NonNull List<CallRecord> sortedRecords) {
+            this.records = sortedRecords;
+        }
+
+        @Nullable @Override public CallRecord peek() {
+            return index < records.size() ? records.get(index) : null;
+        }
+
+        @Override public void advance() {
+            if (index < records.size()) index++;
+        }
+    }
+
+    /** MediaStore keyset 페이지를 필요할 때마다 읽어오는 출처 */
+    static final class MediaStoreSource implements Source {
+        private final MediaStorePager pager;
+        private final int fetchSize;
+        private final List<CallRecord> buffer = new ArrayList<>();
+        private int index;
+        @Nullable private MediaStorePager.Key last;
+        private boolean exhausted;
+
+        MediaStoreSource(@NonNull MediaStorePager pager, int fetchSize) {
+            this.pager = pager;
+            this.fetchSize = fetchSize;
+        }
+
+        @Nullable @Override public CallRecord peek() {
+            while (index >= buffer.size() && !exhausted) {
+                MediaStorePager.Page page = pager.next(last, fetchSize);
+                buffer.clear();
+                buffer.addAll(page.records);
+                index = 0;
+                last = page.last;
+                exhausted = page.exhausted;
+            }
+            return index < buffer.size() ? buffer.get(index) : null;
+        }
+
+        @Override public void advance() {
+            if (index < buffer.size()) index++;
+        }
+    }
+}
@@ -7,7 +7,10 @@ import androidx.annotation.Nullable;
 
 import com.example.diallog.data.model.CallRecord;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
@@ -17,6 +20,40 @@ public interface CallRepository {
     default void setUserDirUri(@Nullable Uri uri) {}
     @NonNull
     default Future<?> refreshAsync() { return CompletableFuture.completedFuture(null); }
+    /** fullRescan=false면 구현체가 변경분만 반영(delta)할 수 있습니다. */
+    @NonNull
+    default Future<?> refreshAsync(boolean fullRescan) { return refreshAsync(); }
+    /** 스캔 결과를 출처별 배치로 listener에 전달합니다. 기본 구현은 배치 없이 스캔만 합니다. */
+    @NonNull
+    default Future<?> refreshAsync(boolean fullRescan, @Nullable ScanListener listener) {
+        return refreshAsync(fullRescan);
+    }
+    /**
+     * 단일 항목 변경 알림(MediaStore 등)을 반영합니다. 백그라운드에서 호출합니다.
+     * 어떤 항목인지 알 수 없거나 지원하지 않으면 null이며, 호출 측은 refreshAsync로 대신합니다.
+     */
+    @Nullable
+    default CallChange applyChange(@NonNull Uri uri) { return null; }
+    /** 디스크에 저장된 이전 목록을 복원합니다. 복원된 항목이 있으면 true. */
+    default boolean restoreIndex() { return false; }
+    /**
+     * 시작 시각/길이/폴더 조건으로 목록을 거릅니다 (최신순, query.limit개까지).
+     * 기본 구현은 getRecent를 처음부터 훑으며, 인덱스를 가진 구현체는 이를 재정의합니다.
+     */
+    @NonNull
+    default List<CallRecord> query(@NonNull CallQuery query) {
+        final int chunk = 200;
+        List<CallRecord> all = new ArrayList<>();
+        for (int offset = 0; ; offset += chunk) {
+            List<CallRecord> page = getRecent(offset, chunk);
+            all.addAll(page);
+            if (page.size() < chunk) break;
+        }
+        return query.filter(all);
+    }
+    /** 알려진 폴더 목록 (CallQuery.inFolder 용) */
+    @NonNull
+    default Set<String> folders() { return Collections.emptySet(); }
     default void ensureScanned() {}
     default void reload() {}
 
@@ -0,0 +1,328 @@
+package com.example.diallog.data.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.model.WordTimings;
+import com.example.diallog.utils.AudioSnipper;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChunkedTranscriber
+ * - 긴 녹음을 무음 구간에서 잘라 16kHz 모노 WAV 조각으로 만들고, 조각들을 병렬로 전사합니다.
+ * - 디코딩하면서 조각이 완성되는 즉시 요청을 보내므로 업로드와 디코딩이 겹칩니다.
+ * - 조각의 세그먼트 시각에 조각 시작 시각을 더해 원래 타임라인으로 이어 붙입니다.
+ * 짧은 녹음은 나누지 않고 그대로 inner에 넘깁니다.
+ */
+public final class ChunkedTranscriber implements Transcriber {
+    private static final String TAG = "ChunkedTranscriber";
+
+    private static final int SAMPLE_RATE = 16_000;
+    /** 이보다 짧은 녹음은 그대로 전달 */
+    private static final long DIRECT_MAX_MS = 90_000L;
+    /** 조각 길이: 최소 길이 이후 첫 무음에서 자르고, 최대 길이에 닿으면 강제로 자릅니다. */
+    private static final long CHUNK_MIN_MS = 30_000L;
+    private static final long CHUNK_MAX_MS = 55_000L;
+    private static final int FRAME_SAMPLES = SAMPLE_RATE / 50;           // 20ms
+    private static final int SILENCE_FRAMES = 15;                        // 300ms
+    private static final int SILENCE_MEAN_ABS = 300;                     // 16bit 기준 약 -40dBFS
+
+    private final Context app;
+    private final Transcriber inner;
+    private final AudioSnipper decoder;
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * @param parallelism 동시에 전사할 조각 수 상한
+     */
+    public ChunkedTranscriber(@NonNull Context context,
+                              @NonNull Transcriber inner,
+                              @NonNull AudioSnipper decoder,
+                              int parallelism) {
+        this.app = context.getApplicationContext();
+        this.inner = inner;
+        this.decoder = decoder;
+        int threads = Math.max(1, parallelism);
+        this.pool = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        // TranscriberPipeline을 통해 프로세스 내내 하나만 쓰입니다. 전사는 가끔 몰려서 일어나므로
+        // 작업이 없을 때 코어 스레드까지 내려 두고, 다음 전사 때 다시 만듭니다.
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public @NonNull TranscriptionResult transcribe(@NonNull Uri audioUri) {
+        return transcribeChunked(audioUri, null);
+    }
+
+    @Override
+    public @NonNull TranscriptionResult transcribe(@NonNull Uri audioUri, @NonNull String languageCode) {
+        return transcribeChunked(audioUri, languageCode);
+    }
+
+    @NonNull
+    private TranscriptionResult transcribeChunked(@NonNull Uri audioUri, @Nullable String languageCode) {
+        AudioMeta meta = AudioMetaEnricher.getOrProbe(app, audioUri);
+        if (meta == null || meta.durationMs <= DIRECT_MAX_MS) {
+            return transcribeOne(audioUri, languageCode);
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        File dir = new File(app.getCacheDir(), "chunks_" + System.nanoTime());
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdirs();
+        Splitter splitter = new Splitter(dir, languageCode);
+        try {
+            try {
+                boolean decoded = decoder.decode(audioUri, splitter);
+                splitter.finish();
+                if (!decoded) {
+                    Log.w(TAG, "chunk.skip reason=no_audio_track uri=" + audioUri);
+                    splitter.cancelAll();
+                    return transcribeOne(audioUri, languageCode);
+                }
+            } catch (InterruptedIOException e) {
+                splitter.cancelAll();
+                throw (CancellationException) new CancellationException("Chunked decode cancelled").initCause(e);
+            } catch (Exception e) {
+                splitter.cancelAll();
+                throw new RuntimeException("Chunked decode failed: " + e.getMessage(), e);
+            }
+            Log.i(TAG, "chunk.split chunks=" + splitter.chunks.size()
+                    + " durationMs=" + meta.durationMs
+                    + " decodeMs=" + (SystemClock.elapsedRealtime() - start));
+
+            List<TranscriptSegment> out = new ArrayList<>();
+            List<WordTimings> words = new ArrayList<>();
+            long[] wordOffsets = new long[splitter.chunks.size()];
+            for (Chunk chunk : splitter.chunks) {
+                TranscriptionResult part = await(chunk.result, splitter);
+                for (TranscriptSegment s : part.segments) {
+                    out.add(new TranscriptSegment(s.text, s.startMs + chunk.offsetMs, s.endMs + chunk.offsetMs));
+                }
+                wordOffsets[words.size()] = chunk.offsetMs;
+                words.add(part.words);
+            }
+            WordTimings stitched = WordTimings.concat(words, wordOffsets);
+            Log.i(TAG, "chunk.done segments=" + out.size() + " words=" + stitched.size()
+                    + " totalMs=" + (SystemClock.elapsedRealtime() - start));
+            return TranscriptionResult.finalResult(out, stitched, null);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @NonNull
+    private TranscriptionResult transcribeOne(@NonNull Uri uri, @Nullable String languageCode) {
+        return languageCode != null ? inner.transcribe(uri, languageCode) : inner.transcribe(uri);
+    }
+
+    @NonNull
+    private static TranscriptionResult await(@NonNull Future<TranscriptionResult> f, @NonNull Splitter splitter) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            splitter.cancelAll();
+            Thread.currentThread().interrupt();
+            throw (CancellationException) new CancellationException("Chunked transcription interrupted").initCause(e);
+        } catch (ExecutionException e) {
+            // 한 조각이라도 실패하면 결과에 구멍이 생기므로 전체를 실패로 처리합니다.
+            splitter.cancelAll();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static final class Chunk {
+        final long offsetMs;
+        final Future<TranscriptionResult> result;
+
+        Chunk(long offsetMs, Future<TranscriptionResult> result) {
+            this.offsetMs = offsetMs;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 디코딩된 PCM을 20ms 프레임 단위로 현재 조각 WAV에 씁니다.
+     * 최소 길이를 넘긴 뒤 300ms 무음이 이어지면 조각을 닫고 바로 전사를 제출합니다.
+     */
+    private final class Splitter implements AudioSnipper.PcmSink {
+        final List<Chunk> chunks = new ArrayList<>();
+        private final File dir;
+        @Nullable private final String languageCode;
+        /** 호출한 스레드의 취소기. 조각 요청도 함께 취소되도록 작업자 스레드에 넘깁니다. */
+        @Nullable private final CallCanceller owner = CallCanceller.current();
+        private final short[] frame = new short[FRAME_SAMPLES];
+        private int frameFill;
+        private long totalSamples;      // 닫힌 조각까지 포함한 전체 샘플 수
+        private long chunkStartSample;
+        private int silentFrames;
+        @Nullable private File currentFile;
+        @Nullable private OutputStream current;
+        private long currentBytes;
+
+        Splitter(@NonNull File dir, @Nullable String languageCode) {
+            this.dir = dir;
+            this.languageCode = languageCode;
+        }
+
+        @Override
+        public void write(@NonNull short[] samples, int count) throws IOException {
+            checkCancelled();
+            for (int i = 0; i < count; i++) {
+                frame[frameFill++] = samples[i];
+                if (frameFill == FRAME_SAMPLES) {
+                    onFrame();
+                    frameFill = 0;
+                }
+            }
+        }
+
+        private void onFrame() throws IOException {
+            if (current == null) open();
+            byte[] bytes = new byte[FRAME_SAMPLES * 2];
+            long sum = 0;
+            for (int i = 0; i < FRAME_SAMPLES; i++) {
+                short v = frame[i];
+                sum += Math.abs(v);
+                bytes[i * 2] = (byte) v;
+                bytes[i * 2 + 1] = (byte) (v >> 8);
+            }
+            current.write(bytes);
+            currentBytes += bytes.length;
+            totalSamples += FRAME_SAMPLES;
+            silentFrames = sum / FRAME_SAMPLES < SILENCE_MEAN_ABS ? silentFrames + 1 : 0;
+
+            long chunkMs = (totalSamples - chunkStartSample) * 1000L / SAMPLE_RATE;
+            if ((chunkMs >= CHUNK_MIN_MS && silentFrames >= SILENCE_FRAMES) || chunkMs >= CHUNK_MAX_MS) {
+                close();
+            }
+        }
+
+        void finish() throws IOException {
+            if (frameFill > 0) {
+                if (current == null) open();
+                byte[] bytes = new byte[frameFill * 2];
+                for (int i = 0; i < frameFill; i++) {
+                    bytes[i * 2] = (byte) frame[i];
+                    bytes[i * 2 + 1] = (byte) (frame[i] >> 8);
+                }
+                current.write(bytes);
+                currentBytes += bytes.length;
+                totalSamples += frameFill;
+                frameFill = 0;
+            }
+            if (current != null) close();
+        }
+
+        /** 전사가 버려졌으면(헤지 패배, 추측 실패, 작업 취소) 디코딩과 조각 제출을 멈춥니다. */
+        private void checkCancelled() throws InterruptedIOException {
+            if (Thread.currentThread().isInterrupted() || (owner != null && owner.isCancelled())) {
+                throw new InterruptedIOException("chunking cancelled");
+            }
+        }
+
+        void cancelAll() {
+            for (Chunk c : chunks) c.result.cancel(true);
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException ignore) {
+                }
+                current = null;
+            }
+        }
+
+        private void open() throws IOException {
+            currentFile = new File(dir, "chunk_" + chunks.size() + ".wav");
+            current = new BufferedOutputStream(new FileOutputStream(currentFile), 64 * 1024);
+            current.write(new byte[44]); // 헤더 자리, 닫을 때 채웁니다.
+            currentBytes = 0;
+            chunkStartSample = totalSamples;
+            silentFrames = 0;
+        }
+
+        private void close() throws IOException {
+            OutputStream os = current;
+            File file = currentFile;
+            current = null;
+            currentFile = null;
+            if (os == null || file == null) return;
+            os.close();
+            checkCancelled();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.write(wavHeader(currentBytes));
+            }
+            long offsetMs = chunkStartSample * 1000L / SAMPLE_RATE;
+            Uri chunkUri = Uri.fromFile(file);
+            Future<TranscriptionResult> f = pool.submit(
+                    () -> CallCanceller.runWith(owner, () -> transcribeOne(chunkUri, languageCode)));
+            chunks.add(new Chunk(offsetMs, f));
+            Log.i(TAG, "chunk.submit index=" + (chunks.size() - 1) + " offsetMs=" + offsetMs
+                    + " ms=" + (currentBytes / 2 * 1000L / SAMPLE_RATE));
+        }
+    }
+
+    @NonNull
+    private static byte[] wavHeader(long dataBytes) {
+        int byteRate = SAMPLE_RATE * 2;
+        byte[] h = new byte[44];
+        putAscii(h, 0, "RIFF");
+        putIntLe(h, 4, (int) (36 + dataBytes));
+        putAscii(h, 8, "WAVE");
+        putAscii(h, 12, "fmt ");
+        putIntLe(h, 16, 16);            // PCM fmt chunk 크기
+        h[20] = 1;                       // PCM
+        h[22] = 1;                       // 모노
+        putIntLe(h, 24, SAMPLE_RATE);
+        putIntLe(h, 28, byteRate);
+        h[32] = 2;                       // block align
+        h[34] = 16;                      // bits per sample
+        putAscii(h, 36, "data");
+        putIntLe(h, 40, (int) dataBytes);
+        return h;
+    }
+
+    private static void putAscii(byte[] dst, int at, String s) {
+        for (int i = 0; i < s.length(); i++) dst[at + i] = (byte) s.charAt(i);
+    }
+
+    private static void putIntLe(byte[] dst, int at, int v) {
+        dst[at] = (byte) v;
+        dst[at + 1] = (byte) (v >> 8);
+        dst[at + 2] = (byte) (v >> 16);
+        dst[at + 3] = (byte) (v >> 24);
+    }
+
+    private static void deleteRecursively(@NonNull File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) deleteRecursively(c);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        f.delete();
+    }
+}
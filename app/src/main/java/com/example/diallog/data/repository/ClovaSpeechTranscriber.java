@@ -12,6 +12,7 @@ import static okhttp3.MediaType.parse;
 import com.example.diallog.R;
 import com.example.diallog.data.model.TranscriptSegment;
 import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.model.WordTimings;
 import com.example.diallog.data.network.ClovaSpeechResponse;
 import com.example.diallog.data.network.ClovaSpeechApi;
 import com.example.diallog.BuildConfig;
@@ -44,16 +45,16 @@ public final class ClovaSpeechTranscriber implements Transcriber {
 
     @Override
     public @NonNull TranscriptionResult transcribe(@NonNull Uri audioUri, @NonNull String languageCode) {
-        List<TranscriptSegment> segments = transcribeInternal(audioUri, languageCode);
-        return TranscriptionResult.finalResult(segments, null);
+        return transcribeInternal(audioUri, languageCode);
     }
 
     @NonNull
-    private List<TranscriptSegment> transcribeInternal(@NonNull Uri audioUri, @NonNull String languageCode) {
+    private TranscriptionResult transcribeInternal(@NonNull Uri audioUri, @NonNull String languageCode) {
         MediaResolver.ResolvedAudio resolved = null;
         Log.i(TAG, "transcribe: start uri=" + audioUri);
         try {
             // 1) 입력 파일 결정: 제공된 경로 우선, 없으면 데모용 raw 복사
+            CallCanceller.emit(TranscriptionListener.Stage.RESOLVE, 0, 0);
             MediaResolver resolver = new MediaResolver(app);
             resolved = resolver.resolveWithFallback(audioUri, app.getResources(), R.raw.sample1, "sample1.mp3");
             Log.d(TAG, "transcribe: resolved file=" + resolved.file
@@ -62,7 +63,8 @@ public final class ClovaSpeechTranscriber implements Transcriber {
 
 
             // 2) multipart 파트 구성
-            RequestBody mediaRb = RequestBody.create(resolved.file, parse(MediaResolver.guessMimeType(resolved.file.getName())));
+            RequestBody mediaRb = ProgressRequestBody.wrap(
+                    RequestBody.create(resolved.file, parse(MediaResolver.guessMimeType(resolved.file.getName()))));
             MultipartBody.Part media = MultipartBody.Part.createFormData("media", resolved.file.getName(), mediaRb);
 
             String effectiveLanguage = TextUtils.isEmpty(languageCode) ? language : languageCode;
@@ -80,30 +82,33 @@ public final class ClovaSpeechTranscriber implements Transcriber {
             // 3) 호출
             ClovaSpeechApi svc = retrofit.create(ClovaSpeechApi.class);
             Log.i(TAG, "transcribe: calling ClovaSpeech language=" + effectiveLanguage);
-            Response<ClovaSpeechResponse> resp = svc.recognize(
+            Response<ClovaSpeechResponse> resp = CallCanceller.track(svc.recognize(
                     BuildConfig.NAVER_CLOVA_STT_API_KEY, media, params, type
-            ).execute();
+            )).execute();
             Log.i(TAG, "transcribe: response code=" + resp.code());
 
             if (!resp.isSuccessful() || resp.body() == null) {
                 Log.e(TAG, "transcribe: request failed code=" + resp.code());
-                throw new RuntimeException("ClovaSpeech failed: HTTP " + resp.code());
+                throw SttServiceException.forHttp(resp.code(), "ClovaSpeech failed: HTTP " + resp.code());
             }
 
             // 4) 매핑
+            CallCanceller.emit(TranscriptionListener.Stage.MAP, 0, 0);
             ClovaSpeechResponse b = resp.body();
             List<TranscriptSegment> out = new ArrayList<>();
             if (b.segments != null && !b.segments.isEmpty()) {
+                // 구간은 응답 어댑터가 파싱하면서 이미 만들어 두었습니다.
                 Log.i(TAG, "transcribe: mapping " + b.segments.size() + " segments");
-                for (ClovaSpeechResponse.Seg s : b.segments) {
-                    out.add(new TranscriptSegment(s.text, s.startMs, s.endMs));
-                }
+                out.addAll(b.segments);
             } else if (b.text != null && !b.text.isEmpty()) {
                 Log.i(TAG, "transcribe: single text fallback length=" + b.text.length());
                 out.add(new TranscriptSegment(b.text, 0, 0));
             }
 
-            return out;
+            // wordAlignment=true로 요청했으므로 단어 시각도 함께 넘깁니다.
+            WordTimings words = b.words != null ? b.words : WordTimings.EMPTY;
+            Log.i(TAG, "transcribe: words=" + words.size());
+            return TranscriptionResult.finalResult(out, words, null);
         } catch (Exception e) {
             Log.e(TAG, "transcribe: failed", e);
             throw new RuntimeException("ClovaSpeech error: " + e.getMessage(), e);
@@ -15,28 +15,34 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.documentfile.provider.DocumentFile;
+import androidx.annotation.VisibleForTesting;
 
 import com.example.diallog.data.model.CallRecord;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 
 /**
  * FileSystemCallRepository
  * - MediaStore에서 오디오를 최신순으로 스캔하고 통화녹음 후보만 필터합니다.
  * - getRecent(offset, limit): 오프셋/리미트 기반 페이징을 제공합니다.
+ *   keysetPaging 모드에서는 MediaStore를 페이지마다 keyset 조회하고 SAF 결과와 k-way merge 합니다.
  * - getByPath(path): 단일 파일 메타데이터를 반환합니다.
  *
  * 권한:
@@ -46,26 +52,76 @@ import java.util.concurrent.Future;
 public final class FileSystemCallRepository implements CallRepository {
     private static final String TAG = "Repo";
     private static final int MAX_DEPTH_SAF = 4;        // SAF 순회 최대 깊이
-    private static final int MAX_FILES_SAF = 200;      // SAF에서 수집할 최대 파일 수
+    private static final int MAX_FILES_SAF = 5000;     // SAF에서 수집할 최대 파일 수
+    private static final int SAF_PARALLELISM = 4;      // SAF 디렉터리 동시 조회 수
     private static final long TIME_BUDGET_MS = 600L;   // 한 스캔 호출 당 시간 예산
     private static final int MEDIASTORE_LIMIT = 300;
+    private static final int META_PARALLELISM = 2;    // SAF 메타데이터 probe 동시 실행 수
+    private static final int KEYSET_FETCH_SIZE = 50;  // keyset 모드에서 MediaStore 한 번에 읽는 행 수
+    private static final String MEDIA_VOLUME = MediaStore.VOLUME_EXTERNAL_PRIMARY;
+    private static final String[] DIALLOG_PATH_MARKERS = { "/music/diallog/", "/diallog/" };
+    private static final int RANK_FOCUSED = 0;
+    private static final int RANK_PATH = 1;
+    private static final int RANK_OTHER = 2;
+    private static final int RANK_COUNT = 3;
+    private static final Comparator<CallRecord> NEWEST_FIRST =
+            (a, b) -> Long.compare(b.startedAtEpochMs, a.startedAtEpochMs);
 
     private final Context appContext;
     @Nullable private volatile Uri userDirUri;
     private final Set<String> audioExt;
     private final Set<String> hints;
-    private final List<CallRecord> cache = new ArrayList<>();
+    // 목록은 불변 스냅샷(CallIndex) 하나뿐입니다. 읽기는 락 없이 현재 참조를 쓰고,
+    // 쓰기는 writeLock 안에서 새 스냅샷을 만들어 교체합니다. 모니터(this)는 스캔 상태 플래그에만 씁니다.
+    private volatile CallIndex index = CallIndex.EMPTY;
+    private long publishSeq;  // writeLock으로 보호. 디스크 저장 순서를 정합니다.
+    private final Object writeLock = new Object();
+    private final CallIndexStore indexStore;
     private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService safPool = Executors.newFixedThreadPool(SAF_PARALLELISM);
+    private final SafTreeScanner safScanner;
+    private final AudioMetaEnricher enricher;
+    private volatile boolean enrichMetadata = true;
     private volatile boolean scanned = false;
+    // 한 번이라도 스캔을 마쳤는지. 재스캔 중에도 내려가지 않으며, keyset 페이징은 이 뒤부터 씁니다.
+    private volatile boolean everScanned = false;
     private volatile boolean scanning = false;
     @Nullable private volatile Future<?> ongoingScan;
+    @Nullable private volatile Watermark watermark;   // 마지막 MediaStore 스캔 지점
+    // 전체 스캔/폴더 변경마다 증가합니다. 세대가 바뀐 스캔(이어서 하는 SAF 순회 포함)은 중간에 멈추고 게시하지 않습니다.
+    private final AtomicInteger scanGeneration = new AtomicInteger();
+    private int activeScanToken;   // this로 보호, 마지막으로 시작한 스캔 작업의 번호
+
+    // keyset 페이징 모드 (keysetPaging == true 일 때만 사용)
+    private final boolean keysetPaging;
+    private final MediaStorePager pager;  // 단일 행 조회(applyChange)에도 사용
+    private final Object pagingLock = new Object();
+    @Nullable private CallRecordMerger pagingCursor;  // pagingLock으로 보호, 다음 getRecent의 이어 읽기 지점
+    private int pagingCursorVersion;                   // pagingLock으로 보호
+    private final AtomicInteger pagingVersion = new AtomicInteger();  // 목록이 바뀔 때마다 증가
 
     public FileSystemCallRepository(@NonNull Context context,
                                     @Nullable Uri dirUri,
                                     @NonNull Set<String> hints,
                                     @NonNull Set<String> audioExt) {
+        this(context, dirUri, hints, audioExt, false);
+    }
+
+    /**
+     * @param keysetPaging true면 첫 스캔이 끝난 뒤부터 getRecent/query/folders가 메모리 목록(MEDIASTORE_LIMIT 상한) 대신
+     *                     MediaStore keyset 조회 + SAF 목록 병합으로 결과를 만듭니다.
+     *                     그 전에는 restoreIndex()로 복원한 목록을 그대로 보여줍니다.
+     *                     상한이 없으므로 힌트/경로 우선순위(rankOf)로 자르지 않고, 공통 조건에 맞는
+     *                     모든 오디오를 최신순으로 보여줍니다.
+     */
+    public FileSystemCallRepository(@NonNull Context context,
+                                    @Nullable Uri dirUri,
+                                    @NonNull Set<String> hints,
+                                    @NonNull Set<String> audioExt,
+                                    boolean keysetPaging) {
         this.appContext = context.getApplicationContext();
         this.userDirUri = dirUri;
+        this.indexStore = new CallIndexStore(appContext);
         this.hints = new HashSet<>();
         for (String h : hints) {
             if (h != null) {
@@ -78,51 +134,137 @@ public final class FileSystemCallRepository implements CallRepository {
                 this.audioExt.add(ext.replace(".", "").toLowerCase());
             }
         }
+        this.safScanner = new SafTreeScanner(
+                appContext.getContentResolver(), safPool,
+                (name, mime) -> (mime != null && mime.startsWith("audio/")) || isAudio(name),
+                MAX_DEPTH_SAF, MAX_FILES_SAF);
+        this.keysetPaging = keysetPaging;
+        this.enricher = new AudioMetaEnricher(appContext, AudioMetaStore.get(appContext), META_PARALLELISM);
+        this.pager = new MediaStorePager(appContext.getContentResolver(), this.audioExt);
     }
 
 
-    /** 스캔 (백그라운드에서 호출) */
+    /**
+     * 디스크 인덱스에서 직전 실행의 목록을 복원합니다 (백그라운드에서 호출).
+     * 복원된 목록은 다음 전체 스캔에서 재조정되며, 이미 스캔 결과가 있으면 아무것도 하지 않습니다.
+     */
+    @Override
+    public boolean restoreIndex() {
+        if (scanned || index.size() > 0) return false;
+        CallIndexStore.Snapshot snapshot = indexStore.load();
+        if (snapshot == null || snapshot.records.isEmpty()) return false;
+
+        final Uri localUri = userDirUri;
+        final boolean sameDir = localUri == null ? snapshot.dirUri == null : localUri.equals(snapshot.dirUri);
+        List<CallRecord> restored = new ArrayList<>(snapshot.records.size());
+        for (CallRecord cr : snapshot.records) {
+            // 다른 SAF 폴더에서 수집된 항목은 버립니다.
+            if (cr.source == CallRecord.Source.SAF && !sameDir) continue;
+            restored.add(cr);
+        }
+        synchronized (writeLock) {
+            if (scanned || index.size() > 0) return false;
+            publish(restored);
+        }
+        Log.i(TAG, "restoreIndex: restored=" + restored.size());
+        return !restored.isEmpty();
+    }
+
+    /**
+     * 스캔 (백그라운드에서 호출). 스캔은 scanExecutor에서 돌고 여기서는 끝나기를 기다리기만 하므로
+     * 그동안에도 getRecent/getByUri는 직전 스냅샷으로 바로 응답합니다.
+     */
     @Override
-    public synchronized void ensureScanned() {
+    public void ensureScanned() {
         if (scanned) {
             Log.i(TAG, "ensureScanned: skip (already)");
             return;
         }
-        if (scanning) {
-            Log.i(TAG, "ensureScanned: skip (scanning)");
-            return;
-        }
-        scanning = true;
+        Future<?> future = refreshAsync(true);
         try {
-            internalScan();
-        } finally {
-            scanning = false;
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "ensureScanned: scan failed", e);
         }
     }
     @NonNull
     @Override
-    public synchronized Future<?> refreshAsync() {
+    public Future<?> refreshAsync() {
+        return refreshAsync(false);
+    }
+
+    /**
+     * 이전 스캔의 워터마크가 있으면 변경분만 조회(delta)하고, 없거나 fullRescan이면 전체 스캔합니다.
+     * delta 스캔은 삭제를 감지하지 못하므로 삭제 반영이 필요하면 fullRescan을 사용합니다.
+     */
+    @NonNull
+    @Override
+    public Future<?> refreshAsync(boolean fullRescan) {
+        return refreshAsync(fullRescan, null);
+    }
+
+    /**
+     * listener가 주어지면 출처별 결과를 수집되는 즉시 배치로 전달합니다.
+     * MediaStore를 먼저 조회하므로 첫 배치는 한 번의 MediaStore 왕복 뒤에 도착합니다.
+     * 이미 스캔 중이면 진행 중인 Future를 돌려주며, 이 경우 listener는 호출되지 않습니다.
+     */
+    @NonNull
+    @Override
+    public synchronized Future<?> refreshAsync(boolean fullRescan, @Nullable ScanListener listener) {
         if (scanning) {
             Log.i(TAG, "refreshAsync: already running");
             return ongoingScan != null ? ongoingScan : CompletableFuture.completedFuture(null);
         }
+        return startScan(fullRescan, listener);
+    }
+
+    /**
+     * this 보유 상태에서 호출. 전체 스캔이면 세대를 올려 진행 중인 이전 스캔을 무효화합니다.
+     * scanExecutor는 단일 스레드이므로 새 스캔은 이전 스캔이 (세대 확인으로 일찍) 끝난 뒤 시작됩니다.
+     */
+    @NonNull
+    private Future<?> startScan(boolean fullRescan, @Nullable ScanListener listener) {
+        final boolean delta = !fullRescan && scanned && watermark != null;
+        final int generation = delta ? scanGeneration.get() : scanGeneration.incrementAndGet();
+        final int token = ++activeScanToken;
+        if (!delta) {
+            scanned = false;
+        }
         scanning = true;
-        scanned = false;
         ongoingScan = scanExecutor.submit(() -> {
             try {
-                internalScan();
+                if (delta) {
+                    deltaScan(listener, generation);
+                } else {
+                    internalScan(listener, generation);
+                }
             } catch (Exception e) {
-                Log.e(TAG, "refreshAsync: scan failed", e);
+                Log.e(TAG, "startScan: scan failed gen=" + generation, e);
             } finally {
                 synchronized (FileSystemCallRepository.this) {
-                    scanning = false;
-                    ongoingScan = null;
+                    // 이 작업 뒤에 다른 스캔이 예약되었다면 그 스캔의 상태는 건드리지 않습니다.
+                    if (activeScanToken == token) {
+                        scanning = false;
+                        ongoingScan = null;
+                    }
                 }
             }
         });
         return ongoingScan;
     }
 
+    /** 벤치마크용: 실제 파일이 없는 가짜 provider에서는 probe가 측정을 방해하므로 끌 수 있습니다. */
+    @VisibleForTesting
+    void setMetadataEnrichment(boolean enabled) {
+        enrichMetadata = enabled;
+    }
+
+    private boolean isSuperseded(int generation) {
+        return scanGeneration.get() != generation;
+    }
+
 
     @Override
     public void reload() {
@@ -143,163 +285,435 @@ public final class FileSystemCallRepository implements CallRepository {
             return;
         }
         userDirUri = uri;
-        scanned = false;
-        refreshAsync();
+        // 진행 중인 스캔이 있어도 기다리지 않습니다. 새 세대의 스캔을 예약하면 이전 스캔은 멈추고 게시하지 않습니다.
+        Log.i(TAG, "setUserDirUri: rescan, superseding scanning=" + scanning);
+        startScan(true, null);
     }
 
-    private void internalScan() {
+    private void internalScan(@Nullable ScanListener listener, int generation) {
         final long startTicks = SystemClock.uptimeMillis();
         final List<CallRecord> collected = new ArrayList<>();
         final Uri localUri = userDirUri;
+        final ScanTally tally = new ScanTally();
+        final BooleanSupplier cancelled = () -> isSuperseded(generation);
+        if (cancelled.getAsBoolean()) {
+            Log.i(TAG, "internalScan: superseded before start gen=" + generation);
+            return;
+        }
 
+        // 1) MediaStore: 한 번의 조회로 끝나므로 먼저 돌려 첫 화면을 빨리 채웁니다.
+        List<CallRecord> media = Collections.emptyList();
+        Watermark nextMark = null;
+        try {
+            final long mediaGeneration = currentGeneration();
+            final HighWater highWater = new HighWater();
+            media = scanMediaStore(MEDIASTORE_LIMIT, highWater, tally, cancelled);
+            collected.addAll(media);
+            nextMark = Watermark.of(currentMediaVersion(), mediaGeneration, highWater);
+        } catch (Exception e) {
+            Log.e(TAG, "internalScan: MediaStore scan failed", e);
+        }
+        if (cancelled.getAsBoolean()) {
+            Log.i(TAG, "internalScan: superseded after MediaStore gen=" + generation);
+            return;
+        }
+        emit(listener, CallRecord.Source.MEDIA_STORE, media, tally, startTicks);
+
+        // 2) SAF: 사용자가 지정한 폴더
         int safCount = 0;
+        SafTreeScanner.Checkpoint safCheckpoint = null;
         if (localUri != null) {
+            List<CallRecord> saf = Collections.emptyList();
             try {
-                List<CallRecord> saf = scanUserUri(localUri, startTicks);
+                SafTreeScanner.Result result = scanUserUri(localUri, SystemClock.uptimeMillis(), tally, cancelled);
+                saf = enricher.applyKnown(result.records);
+                safCheckpoint = result.checkpoint;
                 safCount = saf.size();
                 collected.addAll(saf);
             } catch (Exception e) {
                 Log.e(TAG, "internalScan: SAF scan failed", e);
             }
+            if (cancelled.getAsBoolean()) {
+                Log.i(TAG, "internalScan: superseded during SAF gen=" + generation);
+                return;
+            }
+            List<CallRecord> sortedSaf = new ArrayList<>(saf);
+            sortedSaf.sort(NEWEST_FIRST);
+            emit(listener, CallRecord.Source.SAF, sortedSaf, tally, startTicks);
         }
 
-        List<CallRecord> media = Collections.emptyList();
-        try {
-            media = scanMediaStore(MEDIASTORE_LIMIT);
-            collected.addAll(media);
-        } catch (Exception e) {
-            Log.e(TAG, "internalScan: MediaStore scan failed", e);
-        }
         LinkedHashMap<Uri, CallRecord> dedup = new LinkedHashMap<>();
         for (CallRecord cr : collected) {
             dedup.put(cr.uri, cr);
         }
         List<CallRecord> merged = new ArrayList<>(dedup.values());
-        merged.sort((a, b) -> Long.compare(b.startedAtEpochMs, a.startedAtEpochMs));
+        merged.sort(NEWEST_FIRST);
 
-        synchronized (this) {
-            cache.clear();
-            cache.addAll(merged);
+        synchronized (writeLock) {
+            // 게시 직전에 한 번 더 확인: 여기서 통과하면 이후 세대 스캔이 이 결과를 덮어씁니다.
+            if (cancelled.getAsBoolean()) {
+                Log.i(TAG, "internalScan: superseded before publish gen=" + generation);
+                return;
+            }
+            publish(merged);
+            watermark = nextMark;
             scanned = true;
+            everScanned = true;
         }
+        saveIndex();
+        enrichInBackground(merged, listener);
 
         long elapsed = SystemClock.uptimeMillis() - startTicks;
+        if (safCheckpoint != null) {
+            // 예산 안에 못 끝낸 SAF 순회는 백그라운드에서 이어갑니다.
+            scheduleSafResume(safCheckpoint, localUri, listener, generation);
+        } else {
+            emitDone(listener, tally, elapsed);
+        }
         Log.i(TAG, "internalScan: saf=" + safCount +
                 " media=" + media.size() +
                 " total=" + merged.size() +
+                " safResume=" + (safCheckpoint != null) +
                 " took=" + elapsed + "ms");
     }
 
-    /** SAF 폴더: 폴더 지정 → 파일 불러오기 */
-    private List<CallRecord> scanUserUri(@NonNull Uri uri, long startTicks) {
-        final List<CallRecord> out = new ArrayList<>(Math.min(64, MAX_FILES_SAF));
-        final DocumentFile root = DocumentFile.fromTreeUri(appContext, uri);
+    private void scheduleSafResume(@NonNull SafTreeScanner.Checkpoint checkpoint,
+                                   @NonNull Uri dirUri,
+                                   @Nullable ScanListener listener,
+                                   int generation) {
+        scanExecutor.execute(() -> resumeSafScan(checkpoint, dirUri, listener, generation));
+    }
 
-        if (root == null || !root.isDirectory()) {
-            Log.w(TAG, "scanUserUri: invalid tree uri=" + uri);
-            return out;
+    /**
+     * 멈춘 SAF 순회를 한 slice(TIME_BUDGET_MS)씩 이어서 진행합니다. slice 사이에 다른 스캔 작업이
+     * 끼어들 수 있고, 그 사이 전체 스캔이나 폴더 변경이 있으면 이 순회는 버립니다.
+     */
+    private void resumeSafScan(@NonNull SafTreeScanner.Checkpoint checkpoint,
+                               @NonNull Uri dirUri,
+                               @Nullable ScanListener listener,
+                               int generation) {
+        final BooleanSupplier cancelled = () -> isSuperseded(generation) || !dirUri.equals(userDirUri);
+        if (cancelled.getAsBoolean()) {
+            Log.i(TAG, "resumeSafScan: stale, dropped");
+            return;
+        }
+        final long startTicks = SystemClock.uptimeMillis();
+        SafTreeScanner.Result result;
+        try {
+            result = safScanner.resume(checkpoint, startTicks, TIME_BUDGET_MS, cancelled);
+        } catch (Exception e) {
+            Log.e(TAG, "resumeSafScan: failed", e);
+            return;
         }
 
-        final ArrayDeque<DocNode> dq = new ArrayDeque<>();
-        dq.add(new DocNode(root, 0));
+        List<CallRecord> found = enricher.applyKnown(result.records);
+        found.sort(NEWEST_FIRST);
+        if (!found.isEmpty()) {
+            synchronized (writeLock) {
+                if (cancelled.getAsBoolean()) {
+                    Log.i(TAG, "resumeSafScan: superseded during slice");
+                    return;
+                }
+                upsertAll(found);
+            }
+            saveIndex();
+            enrichInBackground(found, listener);
+        } else if (cancelled.getAsBoolean()) {
+            Log.i(TAG, "resumeSafScan: superseded during slice");
+            return;
+        }
 
-        int collected = 0;
-        while (!dq.isEmpty()) {
-            if (SystemClock.uptimeMillis() - startTicks > TIME_BUDGET_MS) break;
+        ScanTally tally = new ScanTally();
+        tally.visited = result.visited;
+        tally.matched = found.size();
+        emit(listener, CallRecord.Source.SAF, found, tally, startTicks);
 
-            final DocNode node = dq.removeFirst();
-            final DocumentFile dir = node.dir;
-            if (node.depth > MAX_DEPTH_SAF) continue;
+        Log.i(TAG, "resumeSafScan: found=" + found.size() + " visited=" + result.visited
+                + " more=" + result.truncated());
+        if (result.checkpoint != null) {
+            scheduleSafResume(result.checkpoint, dirUri, listener, generation);
+        } else {
+            emitDone(listener, tally, SystemClock.uptimeMillis() - startTicks);
+        }
+    }
 
-            final DocumentFile[] children = dir.listFiles();
-            if (children == null) continue;
+    /**
+     * 길이를 모르는 항목(SAF)을 백그라운드에서 probe하고, 끝난 묶음마다 목록을 갱신해 listener로 전달합니다.
+     * 그 사이 목록에서 빠진 항목은 무시합니다. 디스크 인덱스는 묶음마다가 아니라 모두 끝난 뒤 한 번만 씁니다.
+     */
+    private void enrichInBackground(@NonNull List<CallRecord> records, @Nullable ScanListener listener) {
+        if (!enrichMetadata) return;
+        final AtomicBoolean dirty = new AtomicBoolean(false);
+        enricher.enqueue(records, new AudioMetaEnricher.Callback() {
+            @Override
+            public void onEnriched(@NonNull List<CallRecord> updated) {
+                applyEnriched(updated, listener, dirty);
+            }
 
-            for (DocumentFile f : children) {
-                if (collected >= MAX_FILES_SAF) break;
-                if (SystemClock.uptimeMillis() - startTicks > TIME_BUDGET_MS) break;
+            @Override
+            public void onDrained() {
+                if (!dirty.getAndSet(false)) return;
+                saveIndex();
+            }
+        });
+    }
 
-                final String name = f.getName();
-                if (name == null) continue;
+    /** probe가 끝난 묶음을 목록에 반영해 게시합니다. 저장은 onDrained에서 합니다. */
+    private void applyEnriched(@NonNull List<CallRecord> updated, @Nullable ScanListener listener,
+                               @NonNull AtomicBoolean dirty) {
+        List<CallRecord> applied = new ArrayList<>();
+        List<CallRecord> snapshot;
+        synchronized (writeLock) {
+            Map<Uri, CallRecord> byUri = new HashMap<>();
+            for (CallRecord cr : updated) {
+                if (index.get(cr.uri) != null) byUri.put(cr.uri, cr);
+            }
+            if (byUri.isEmpty()) return;
+            // 시작 시각은 그대로이므로 정렬 위치도 그대로
+            snapshot = new ArrayList<>(index.size());
+            for (CallRecord cr : index.newestFirst()) {
+                CallRecord replaced = byUri.get(cr.uri);
+                snapshot.add(replaced != null ? replaced : cr);
+            }
+            applied.addAll(byUri.values());
+            publish(snapshot);
+        }
+        dirty.set(true);
+        applied.sort(NEWEST_FIRST);
+        emitBatch(listener, applied);
+        Log.i(TAG, "enrichInBackground: applied=" + applied.size());
+    }
 
-                if (f.isDirectory()) {
-                    if (shouldSkipDir(name)) {
-                        continue;
-                    }
-                    dq.addLast(new DocNode(f, node.depth + 1));
-                    continue;
-                }
+    /** 현재 스냅샷에 upsert한 새 스냅샷을 게시하고, 최신순으로 정렬된 그 목록을 돌려줍니다. */
+    @VisibleForTesting
+    @NonNull
+    List<CallRecord> upsertAll(@NonNull List<CallRecord> changed) {
+        synchronized (writeLock) {
+            LinkedHashMap<Uri, CallRecord> merged = new LinkedHashMap<>();
+            for (CallRecord cr : index.newestFirst()) merged.put(cr.uri, cr);
+            for (CallRecord cr : changed) merged.put(cr.uri, cr);
+            List<CallRecord> sorted = new ArrayList<>(merged.values());
+            sorted.sort(NEWEST_FIRST);
+            publish(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * MediaStore 변경 알림 하나를 단일 행 조회로 반영합니다.
+     * 행이 조건에 맞으면 upsert, 없어졌거나 조건에서 벗어났으면 삭제합니다.
+     * 컬렉션 URI처럼 어떤 행인지 알 수 없는 알림이면 null을 돌려주며, 호출 측은 delta 새로고침으로 대신합니다.
+     */
+    @Nullable
+    @Override
+    public CallChange applyChange(@NonNull Uri uri) {
+        final long id = MediaStorePager.idOf(uri);
+        if (id < 0) {
+            Log.i(TAG, "applyChange: not a single row uri=" + uri);
+            return null;
+        }
+        final CallRecord found = pager.findById(id);
+        final Uri canonical = ContentUris.withAppendedId(MediaStorePager.contentUri(), id);
 
-                if (!isAudioFile(f, name)) continue;
+        CallChange change;
+        boolean published = false;
+        synchronized (writeLock) {
+            List<CallRecord> next = new ArrayList<>(index.newestFirst());
+            if (found != null) {
+                removeFrom(next, found.uri);
+                insertSorted(next, found);
+                change = CallChange.upsert(found);
+            } else if (index.get(canonical) != null && removeFrom(next, canonical)) {
+                change = CallChange.delete(canonical);
+            } else {
+                change = CallChange.none(canonical);
+            }
+            if (change.kind != CallChange.Kind.NONE) {
+                publish(next);
+                published = true;
+            }
+        }
+        if (published) {
+            saveIndex();
+        }
+        Log.i(TAG, "applyChange: " + change);
+        return change;
+    }
 
-                final long startedAt = Math.max(0L, f.lastModified());
-                out.add(new CallRecord(
-                        f.getUri(), name, 0L, startedAt
-                ));
-                collected++;
+    /** 제거했으면 true */
+    private static boolean removeFrom(@NonNull List<CallRecord> list, @NonNull Uri uri) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).uri.equals(uri)) {
+                list.remove(i);
+                return true;
             }
-            if (collected >= MAX_FILES_SAF) break;
         }
-        Log.i(TAG, "scanUserUri: dir=" + uri + " collected=" + out.size());
-        return out;
+        return false;
+    }
+
+    /** 최신순 위치를 이진 탐색으로 찾아 끼워 넣습니다. */
+    private static void insertSorted(@NonNull List<CallRecord> list, @NonNull CallRecord record) {
+        int lo = 0, hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (NEWEST_FIRST.compare(list.get(mid), record) <= 0) lo = mid + 1; else hi = mid;
+        }
+        list.add(lo, record);
+    }
+
+    /** writeLock 보유 상태에서 호출. 최신순 목록으로 새 스냅샷을 만들어 교체하고 keyset 커서를 무효화합니다. */
+    private void publish(@NonNull List<CallRecord> newestFirst) {
+        index = new CallIndex(newestFirst);
+        publishSeq++;
+        invalidatePaging();
+    }
+
+    /**
+     * 현재 게시된 스냅샷을 디스크에 씁니다. 스냅샷과 순번은 writeLock 안에서 함께 고르고 쓰기는 밖에서 하므로,
+     * 여러 스레드가 동시에 불러도 가장 최근 스냅샷이 남습니다(오래된 쪽은 CallIndexStore가 건너뜁니다).
+     */
+    private void saveIndex() {
+        final long seq;
+        final Uri dir;
+        final List<CallRecord> snapshot;
+        synchronized (writeLock) {
+            seq = publishSeq;
+            dir = userDirUri;
+            snapshot = index.newestFirst();
+        }
+        indexStore.save(seq, dir, snapshot);
     }
 
-    private boolean shouldSkipDir(@NonNull String name) {
-        String lower = name.toLowerCase();
-        return name.startsWith(".") || "android".equalsIgnoreCase(name)
-                || lower.contains("cache") || lower.contains("backup");
+    private static void emit(@Nullable ScanListener listener,
+                             @NonNull CallRecord.Source source,
+                             @NonNull List<CallRecord> sortedBatch,
+                             @NonNull ScanTally tally,
+                             long startTicks) {
+        if (listener == null) return;
+        long elapsed = SystemClock.uptimeMillis() - startTicks;
+        emitBatch(listener, sortedBatch);
+        try {
+            listener.onProgress(new ScanListener.Progress(source, tally.visited, tally.matched, elapsed, false));
+        } catch (RuntimeException e) {
+            Log.w(TAG, "emit: listener failed source=" + source, e);
+        }
     }
 
-    private boolean isAudioFile(@NonNull DocumentFile file, @NonNull String name) {
-        String mime = file.getType();
-        if (mime != null && mime.startsWith("audio/")) return true;
-        return isAudio(name);
+    private static void emitBatch(@Nullable ScanListener listener, @NonNull List<CallRecord> sortedBatch) {
+        if (listener == null || sortedBatch.isEmpty()) return;
+        try {
+            listener.onBatch(Collections.unmodifiableList(sortedBatch));
+        } catch (RuntimeException e) {
+            Log.w(TAG, "emitBatch: listener failed", e);
+        }
     }
 
-    private static final class DocNode {
-        final DocumentFile dir;
-        final int depth;
-        DocNode(DocumentFile d, int depth) { this.dir = d; this.depth = depth; }
+    private static void emitDone(@Nullable ScanListener listener, @NonNull ScanTally tally, long elapsed) {
+        if (listener == null) return;
+        try {
+            listener.onProgress(new ScanListener.Progress(null, tally.visited, tally.matched, elapsed, true));
+        } catch (RuntimeException e) {
+            Log.w(TAG, "emitDone: listener failed", e);
+        }
     }
 
-    /** MediaStore 검색: 경로/파일명에 힌트 포함 + 확장자 필터 */
-    private List<CallRecord> scanMediaStore(int limit) {
-        List<CallRecord> focused = queryMediaStore(limit, true, true);
-        Log.i(TAG, "scanMediaStore: focused.size=" + focused.size());
-        List<CallRecord> general = queryMediaStore(limit, false, true);
-        Log.i(TAG, "scanMediaStore: general.size=" + general.size());
-        List<CallRecord> broad = queryMediaStore(limit, false, false);
-        Log.i(TAG, "scanMediaStore: broad.size=" + broad.size());
+    /**
+     * 워터마크 이후 변경된 MediaStore 행만 조회해 기존 정렬 목록에 병합합니다.
+     * SAF 결과는 폴더가 바뀔 때 전체 스캔에서만 갱신하고 여기서는 그대로 유지합니다.
+     */
+    private void deltaScan(@Nullable ScanListener listener, int generation) {
+        final long startTicks = SystemClock.uptimeMillis();
+        final Watermark from = watermark;
+        if (from == null || !from.matchesVersion(currentMediaVersion())) {
+            Log.i(TAG, "deltaScan: watermark invalid -> full scan");
+            internalScan(listener, generation);
+            return;
+        }
 
-        LinkedHashMap<Uri, CallRecord> map = new LinkedHashMap<>();
+        final long mediaGeneration = currentGeneration();
+        final HighWater highWater = new HighWater();
+        final ScanTally tally = new ScanTally();
+        final BooleanSupplier cancelled = () -> isSuperseded(generation);
+        final List<CallRecord> changed = queryMediaStore(MEDIASTORE_LIMIT, from, highWater, tally, cancelled);
+        if (cancelled.getAsBoolean()) {
+            Log.i(TAG, "deltaScan: superseded gen=" + generation);
+            return;
+        }
+        if (highWater.capped) {
+            // 최신 행부터 읽다 상한에서 멈췄으므로 highWater 아래에 읽지 않은 변경분이 남아 있습니다.
+            // 워터마크를 올리면 그 행들을 영영 놓치므로 전체 스캔으로 다시 맞춥니다.
+            Log.i(TAG, "deltaScan: hit limit read=" + tally.visited + " -> full scan");
+            internalScan(listener, generation);
+            return;
+        }
+        final Watermark nextMark = from.advance(mediaGeneration, highWater);
+        emit(listener, CallRecord.Source.MEDIA_STORE, changed, tally, startTicks);
 
-        for (CallRecord cr : focused) map.put(cr.uri, cr);
-        for (CallRecord cr : general) map.putIfAbsent(cr.uri, cr);
-        for (CallRecord cr : broad) map.putIfAbsent(cr.uri, cr);
+        int total;
+        synchronized (writeLock) {
+            if (cancelled.getAsBoolean()) {
+                Log.i(TAG, "deltaScan: superseded gen=" + generation);
+                return;
+            }
+            if (!changed.isEmpty()) {
+                upsertAll(changed);
+            }
+            watermark = nextMark;
+            scanned = true;
+            total = index.size();
+        }
+        if (!changed.isEmpty()) {
+            saveIndex();
+        }
 
-        List<CallRecord> merged = new ArrayList<>(map.values());
-        merged.sort((a, b) -> Long.compare(b.startedAtEpochMs, a.startedAtEpochMs));
+        long elapsed = SystemClock.uptimeMillis() - startTicks;
+        emitDone(listener, tally, elapsed);
+        Log.i(TAG, "deltaScan: changed=" + changed.size() +
+                " total=" + total +
+                " took=" + elapsed + "ms");
+    }
+
+    /** SAF 폴더: 지정된 트리를 DocumentsContract 커서로 병렬 순회 */
+    private SafTreeScanner.Result scanUserUri(@NonNull Uri uri, long startTicks, @NonNull ScanTally tally,
+                                              @NonNull BooleanSupplier cancelled) {
+        SafTreeScanner.Result result = safScanner.scan(
+                Collections.singletonList(uri), startTicks, TIME_BUDGET_MS, cancelled);
+        tally.visited += result.visited;
+        tally.matched += result.records.size();
+        Log.i(TAG, "scanUserUri: dir=" + uri + " collected=" + result.records.size()
+                + " visited=" + result.visited + " more=" + result.truncated());
+        return result;
+    }
 
-        Log.i(TAG, "scanMediaStore: merged.size=" + merged.size());
-        return merged;
+    /** MediaStore 검색: 한 번의 조회 결과를 힌트/경로 기준으로 순위를 매겨 선별 */
+    private List<CallRecord> scanMediaStore(int limit, @NonNull HighWater highWater, @NonNull ScanTally tally,
+                                            @NonNull BooleanSupplier cancelled) {
+        List<CallRecord> ranked = queryMediaStore(limit, null, highWater, tally, cancelled);
+        Log.i(TAG, "scanMediaStore: ranked.size=" + ranked.size());
+        return ranked;
     }
 
-    private List<CallRecord> queryMediaStore(int limit, boolean useHints, boolean useDialLogPath) {
+    /**
+     * 기본 필터(오디오 MIME, 크기, 길이, 확장자)만 SQL로 걸고, 힌트/DialLog 경로 여부는 커서를 읽으며 판정합니다.
+     * 순위별 상한(limit)은 예전 focused(힌트+경로) / general(경로) / broad(전체) 3회 조회의 LIMIT을 그대로 재현합니다.
+     * since가 주어지면 워터마크 이후 변경분만 조회합니다.
+     */
+    private List<CallRecord> queryMediaStore(int limit,
+                                             @Nullable Watermark since,
+                                             @NonNull HighWater highWater,
+                                             @NonNull ScanTally tally,
+                                             @NonNull BooleanSupplier cancelled) {
         final List<CallRecord> out = new ArrayList<>(Math.min(128, limit));
         final ContentResolver cr = appContext.getContentResolver();
-        final Uri base = (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R)
-                ? MediaStore.Audio.Media.getContentUri(MediaStore.VOLUME_EXTERNAL_PRIMARY)
-                : MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
+        final Uri base = MediaStorePager.contentUri();
 
         final boolean api29Plus = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
-        final String pathColumn = api29Plus
-                ? MediaStore.Audio.Media.RELATIVE_PATH
-                : MediaStore.Audio.Media.DATA;
+        final String pathColumn = MediaStorePager.pathColumn();
 
+        // MIME/SIZE는 selection에서만 쓰므로 projection에서 제외
         final String[] proj = new String[] {
                 MediaStore.Audio.Media._ID,
                 MediaStore.Audio.Media.DISPLAY_NAME,
-                MediaStore.Audio.Media.MIME_TYPE,
-                MediaStore.Audio.Media.SIZE,
                 MediaStore.Audio.Media.DURATION,
                 MediaStore.Audio.Media.DATE_MODIFIED,
                 pathColumn
@@ -308,59 +722,41 @@ public final class FileSystemCallRepository implements CallRepository {
         List<String> sel = new ArrayList<>();
         List<String> args = new ArrayList<>();
 
-        sel.add(MediaStore.Audio.Media.MIME_TYPE + " LIKE ?");
-        args.add("audio/%");
-        sel.add(MediaStore.Audio.Media.SIZE + " > 0");
-        sel.add(MediaStore.Audio.Media.DURATION + " >= ?");
-        args.add("300");
-        if (!audioExt.isEmpty()) {
-            List<String> like = new ArrayList<>();
-            for (String ext : audioExt) {
-                like.add("LOWER(" + MediaStore.Audio.Media.DISPLAY_NAME + ") LIKE ?");
-                args.add("%." + ext);
-            }
-            sel.add("(" + TextUtils.join(" OR ", like) + ")");
-        }
+        MediaStorePager.appendBaseSelection(sel, args, audioExt);
 
-        if (useDialLogPath) {
-            String col = api29Plus
-                    ? "LOWER(" + MediaStore.Audio.Media.RELATIVE_PATH + ")"
-                    : "LOWER(" + MediaStore.Audio.Media.DATA + ")";
-            sel.add("(" + col + " LIKE ? OR " + col + " LIKE ?)");
-            args.add("%/music/diallog/%");
-            args.add("%/diallog/%");
-        }
-
-        if (useHints && !hints.isEmpty()) {
-            List<String> like = new ArrayList<>();
-            for (String h : hints) {
-                like.add("LOWER(" + MediaStore.Audio.Media.DISPLAY_NAME + ") LIKE ?");
-                args.add("%" + h + "%");
-                like.add("LOWER(" + pathColumn + ") LIKE ?");
-                args.add("%" + h + "%");
+        if (since != null) {
+            if (since.hasGeneration()) {
+                sel.add(MediaStore.MediaColumns.GENERATION_MODIFIED + " > ?");
+                args.add(String.valueOf(since.generation));
+            } else {
+                String date = MediaStore.Audio.Media.DATE_MODIFIED;
+                String id = MediaStore.Audio.Media._ID;
+                sel.add("(" + date + " > ? OR (" + date + " = ? AND " + id + " > ?))");
+                args.add(String.valueOf(since.dateModifiedSec));
+                args.add(String.valueOf(since.dateModifiedSec));
+                args.add(String.valueOf(since.mediaId));
             }
-            sel.add("(" + TextUtils.join(" OR ", like) + ")");
         }
         String selection = TextUtils.join(" AND ", sel);
         String[] selectionArgs = args.toArray(new String[0]);
 
-        Log.i(TAG, "queryMediaStore useHints=" + useHints +
-                " useDialLogPath=" + useDialLogPath +
+        Log.i(TAG, "queryMediaStore delta=" + (since != null) +
                 " sel=" + selection +
                 " args=" + Arrays.toString(selectionArgs));
 
+        // (DATE_MODIFIED, _ID) 내림차순: 첫 행이 곧 워터마크 최댓값
         Cursor cursor;
         if (api29Plus) {
             Bundle qb = new Bundle();
             qb.putString(ContentResolver.QUERY_ARG_SQL_SELECTION, selection);
             qb.putStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS, selectionArgs);
-            qb.putString(ContentResolver.QUERY_ARG_SORT_COLUMNS, MediaStore.Audio.Media.DATE_ADDED);
-            qb.putString(ContentResolver.QUERY_ARG_SORT_COLUMNS, MediaStore.Audio.Media.DATE_MODIFIED);
+            qb.putStringArray(ContentResolver.QUERY_ARG_SORT_COLUMNS, new String[] {
+                    MediaStore.Audio.Media.DATE_MODIFIED, MediaStore.Audio.Media._ID
+            });
             qb.putInt(ContentResolver.QUERY_ARG_SORT_DIRECTION, ContentResolver.QUERY_SORT_DIRECTION_DESCENDING);
-            qb.putInt(ContentResolver.QUERY_ARG_LIMIT, Math.max(1, limit));
             cursor = cr.query(base, proj, qb, null);
         } else {
-            String order = MediaStore.Audio.Media.DATE_MODIFIED + " DESC";
+            String order = MediaStore.Audio.Media.DATE_MODIFIED + " DESC, " + MediaStore.Audio.Media._ID + " DESC";
             cursor = cr.query(base, proj, selection, selectionArgs, order);
         }
         if (cursor == null) {
@@ -368,44 +764,172 @@ public final class FileSystemCallRepository implements CallRepository {
             return out;
         }
 
+        final int cap = Math.max(1, limit);
+        final int[] taken = new int[RANK_COUNT];
+        final int[] kept = new int[RANK_COUNT];
+        int read = 0;
         try {
             final int iId = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media._ID);
             final int iName = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DISPLAY_NAME);
-            final int iMime = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.MIME_TYPE);
-            final int iSize = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.SIZE);
             final int iDur  = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DURATION);
             final int iDate = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DATE_MODIFIED);
+            final int iPath = cursor.getColumnIndexOrThrow(pathColumn);
 
-            int added = 0;
             while (cursor.moveToNext()) {
+                if (taken[RANK_FOCUSED] >= cap && taken[RANK_PATH] >= cap && taken[RANK_OTHER] >= cap) {
+                    highWater.capped = true;
+                    break;
+                }
+                if ((read & 63) == 0 && cancelled.getAsBoolean()) {
+                    Log.i(TAG, "queryMediaStore: cancelled read=" + read);
+                    break;
+                }
+                read++;
+                tally.visited++;
+
+                long id = cursor.getLong(iId);
+                long dateModifiedSec = cursor.getLong(iDate);
+                highWater.offer(dateModifiedSec, id);
+
                 String name = cursor.getString(iName);
                 if (name == null) continue;
 
-                String mime = cursor.getString(iMime);
-                long size = cursor.getLong(iSize);
-                long durationMs = cursor.getLong(iDur);
-
-                boolean mimeOk = mime != null && mime.startsWith("audio/");
-                boolean nameOk = isAudio(name);
-                if (!mimeOk && !nameOk) continue;
-                if (size <= 0) continue;
-                if (durationMs < 300) continue;
+                // 각 순위는 상위 순위의 상한도 함께 소모합니다 (focused ⊂ general ⊂ broad).
+                final String path = cursor.getString(iPath);
+                final int rank = rankOf(name, path);
+                boolean keep = false;
+                for (int r = rank; r < RANK_COUNT; r++) {
+                    if (taken[r] < cap) keep = true;
+                    taken[r]++;
+                }
+                if (!keep) continue;
 
-                long id = cursor.getLong(iId);
+                long durationMs = cursor.getLong(iDur);
                 Uri item = ContentUris.withAppendedId(base, id);
-                long dateModifiedSec = cursor.getLong(iDate);
                 long startedAt = Math.max(0L, dateModifiedSec * 1000L);
 
-                out.add(new CallRecord(item, name, durationMs, startedAt));
-                added++;
+                out.add(new CallRecord(item, name, durationMs, startedAt, CallRecord.Source.MEDIA_STORE,
+                        MediaStorePager.folderOf(path)));
+                kept[rank]++;
+                tally.matched++;
             }
-            Log.i(TAG, "queryMediaStore: added=" + added);
+            Log.i(TAG, "queryMediaStore: read=" + read +
+                    " focused=" + kept[RANK_FOCUSED] +
+                    " path=" + kept[RANK_PATH] +
+                    " other=" + kept[RANK_OTHER]);
         } finally {
             cursor.close();
         }
         return out;
     }
 
+    /** 0: 힌트 + DialLog 경로, 1: DialLog 경로, 2: 그 외 */
+    private int rankOf(@NonNull String name, @Nullable String path) {
+        String lowerPath = path != null ? path.toLowerCase() : "";
+        boolean dialLogPath = false;
+        for (String marker : DIALLOG_PATH_MARKERS) {
+            if (lowerPath.contains(marker)) {
+                dialLogPath = true;
+                break;
+            }
+        }
+        if (!dialLogPath) return RANK_OTHER;
+
+        String lowerName = name.toLowerCase();
+        for (String h : hints) {
+            if (lowerName.contains(h) || lowerPath.contains(h)) return RANK_FOCUSED;
+        }
+        return RANK_PATH;
+    }
+
+    /** API 30+에서만 의미가 있습니다. 그 이하에서는 -1. */
+    private long currentGeneration() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) return Watermark.NONE;
+        try {
+            return MediaStore.getGeneration(appContext, MEDIA_VOLUME);
+        } catch (Exception e) {
+            Log.w(TAG, "currentGeneration: failed", e);
+            return Watermark.NONE;
+        }
+    }
+
+    /** MediaStore 버전이 바뀌면(재색인 등) generation 값이 무효가 됩니다. */
+    @Nullable
+    private String currentMediaVersion() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) return null;
+        try {
+            return MediaStore.getVersion(appContext, MEDIA_VOLUME);
+        } catch (Exception e) {
+            Log.w(TAG, "currentMediaVersion: failed", e);
+            return null;
+        }
+    }
+
+    /** 진행 이벤트용 누적 카운터 (스캔 스레드 전용) */
+    private static final class ScanTally {
+        int visited;
+        int matched;
+    }
+
+    /** 조회 중 관측된 DATE_MODIFIED/_ID 최댓값 */
+    private static final class HighWater {
+        long dateModifiedSec = Watermark.NONE;
+        long mediaId = Watermark.NONE;
+        /** 순위별 상한에 걸려 읽지 않은 행을 남기고 멈췄는지 */
+        boolean capped;
+
+        void offer(long dateSec, long id) {
+            if (dateSec > dateModifiedSec || (dateSec == dateModifiedSec && id > mediaId)) {
+                dateModifiedSec = dateSec;
+                mediaId = id;
+            }
+        }
+    }
+
+    /**
+     * 마지막 스캔 지점.
+     * - API 30+: MediaStore generation (+ 버전 문자열로 유효성 확인)
+     * - 그 이하: DATE_MODIFIED(초)/_ID 최댓값
+     */
+    private static final class Watermark {
+        static final long NONE = -1L;
+
+        @Nullable final String mediaVersion;
+        final long generation;
+        final long dateModifiedSec;
+        final long mediaId;
+
+        Watermark(@Nullable String mediaVersion, long generation, long dateModifiedSec, long mediaId) {
+            this.mediaVersion = mediaVersion;
+            this.generation = generation;
+            this.dateModifiedSec = dateModifiedSec;
+            this.mediaId = mediaId;
+        }
+
+        static Watermark of(@Nullable String mediaVersion, long generation, @NonNull HighWater hw) {
+            return new Watermark(mediaVersion, generation, hw.dateModifiedSec, hw.mediaId);
+        }
+
+        boolean hasGeneration() {
+            return generation >= 0 && mediaVersion != null;
+        }
+
+        boolean matchesVersion(@Nullable String currentVersion) {
+            if (mediaVersion == null) return currentVersion == null;
+            return mediaVersion.equals(currentVersion);
+        }
+
+        /** delta 조회 결과로 다음 워터마크를 계산합니다. 변경이 없으면 기존 값을 유지합니다. */
+        Watermark advance(long newGeneration, @NonNull HighWater hw) {
+            long gen = newGeneration >= 0 ? Math.max(generation, newGeneration) : generation;
+            boolean newer = hw.dateModifiedSec > dateModifiedSec
+                    || (hw.dateModifiedSec == dateModifiedSec && hw.mediaId > mediaId);
+            return newer
+                    ? new Watermark(mediaVersion, gen, hw.dateModifiedSec, hw.mediaId)
+                    : new Watermark(mediaVersion, gen, dateModifiedSec, mediaId);
+        }
+    }
+
     private boolean isAudio(@NonNull String fileName) {
         int dot = fileName.lastIndexOf('.');
         if (dot < 0) return false;
@@ -413,16 +937,111 @@ public final class FileSystemCallRepository implements CallRepository {
         return audioExt.contains(ext);
     }
 
-    @Override public synchronized List<CallRecord> getRecent(int offset, int limit) {
-        Log.i(TAG, "getRecent offset=" + offset + " limit=" + limit + " scanned=" + scanned);
-        int to = Math.min(cache.size(), offset + limit);
-        Log.i(TAG, "getRecent cacheSize=" + cache.size() + " sublist=[" + offset + "," + to + ")");
-        if (offset >= to) return Collections.emptyList();
-        return new ArrayList<>(cache.subList(offset, to));
+    @Override public List<CallRecord> getRecent(int offset, int limit) {
+        // 첫 스캔 전에는 복원된 인덱스로 바로 응답합니다. keyset 조회는 MediaStore를 직접 읽으므로 그 뒤부터 씁니다.
+        if (keysetPaging && everScanned) return getRecentKeyset(offset, limit);
+        final CallIndex snapshot = index;
+        Log.i(TAG, "getRecent offset=" + offset + " limit=" + limit + " scanned=" + scanned
+                + " size=" + snapshot.size());
+        return snapshot.recent(offset, limit);
+    }
+
+    /**
+     * 인덱스로 필터링합니다. keyset 모드(첫 스캔 이후)에서는 getRecent와 같은 범위를 보도록
+     * MediaStore를 페이지 단위로 훑으며 거르므로 백그라운드에서 호출합니다.
+     */
+    @NonNull
+    @Override
+    public List<CallRecord> query(@NonNull CallQuery query) {
+        List<CallRecord> result = keysetPaging && everScanned ? queryKeyset(query) : index.query(query);
+        Log.i(TAG, "query " + query + " -> " + result.size());
+        return result;
+    }
+
+    /** keyset 모드에서는 MediaStore 전체를 훑습니다. 백그라운드에서 호출합니다. */
+    @NonNull
+    @Override
+    public Set<String> folders() {
+        if (!(keysetPaging && everScanned)) return index.folders();
+        Set<String> out = new HashSet<>();
+        CallRecordMerger cursor = newPagingCursor();
+        for (List<CallRecord> page = cursor.take(KEYSET_FETCH_SIZE); !page.isEmpty();
+             page = cursor.take(KEYSET_FETCH_SIZE)) {
+            for (CallRecord cr : page) {
+                if (cr.folder != null) out.add(cr.folder);
+            }
+        }
+        Log.i(TAG, "folders: keyset read=" + cursor.position() + " folders=" + out.size());
+        return Collections.unmodifiableSet(out);
+    }
+
+    /** 최신순 병합 결과를 처음부터 거릅니다. 시작 시각 하한보다 오래된 항목이 나오면 멈춥니다. */
+    @NonNull
+    private List<CallRecord> queryKeyset(@NonNull CallQuery q) {
+        if (q.limit <= 0) return Collections.emptyList();
+        List<CallRecord> out = new ArrayList<>();
+        CallRecordMerger cursor = newPagingCursor();
+        while (out.size() < q.limit) {
+            List<CallRecord> page = cursor.take(KEYSET_FETCH_SIZE);
+            if (page.isEmpty()) break;
+            for (CallRecord cr : page) {
+                if (q.fromEpochMs != CallQuery.ANY && cr.startedAtEpochMs < q.fromEpochMs) return out;
+                if (q.matches(cr)) {
+                    out.add(cr);
+                    if (out.size() >= q.limit) break;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 직전 페이지의 끝에서 이어 읽습니다. 순차 호출(offset == 직전까지 읽은 수)이면 MediaStore에는
+     * "마지막 키보다 오래된 행"만 묻고, offset이 어긋나면 처음부터 다시 병합해 건너뜁니다.
+     */
+    private List<CallRecord> getRecentKeyset(int offset, int limit) {
+        if (offset < 0 || limit <= 0) return Collections.emptyList();
+        synchronized (pagingLock) {
+            final int version = pagingVersion.get();
+            CallRecordMerger cursor = pagingCursor;
+            if (cursor == null || pagingCursorVersion != version || cursor.position() > offset) {
+                cursor = newPagingCursor();
+                pagingCursor = cursor;
+                pagingCursorVersion = version;
+            }
+            if (cursor.position() < offset) {
+                Log.i(TAG, "getRecentKeyset: skip " + (offset - cursor.position()));
+                cursor.skip(offset - cursor.position());
+            }
+            List<CallRecord> page = cursor.take(limit);
+            Log.i(TAG, "getRecentKeyset offset=" + offset + " limit=" + limit + " got=" + page.size());
+            return page;
+        }
+    }
+
+    @NonNull
+    private CallRecordMerger newPagingCursor() {
+        List<CallRecord> saf = new ArrayList<>();
+        for (CallRecord cr : index.newestFirst()) {
+            if (cr.source == CallRecord.Source.SAF) saf.add(cr);
+        }
+        List<CallRecordMerger.Source> sources = new ArrayList<>(2);
+        sources.add(new CallRecordMerger.MediaStoreSource(pager, KEYSET_FETCH_SIZE));
+        sources.add(new CallRecordMerger.ListSource(saf));
+        return new CallRecordMerger(sources);
+    }
+
+    /** 목록이 바뀌면 이어 읽던 지점을 버립니다. 다음 getRecent는 최신 항목부터 다시 병합합니다. */
+    private void invalidatePaging() {
+        // writeLock을 쥔 채로 불리므로 pagingLock은 잡지 않습니다.
+        if (keysetPaging) pagingVersion.incrementAndGet();
     }
 
-    @Override public synchronized @Nullable CallRecord getByUri(@NonNull Uri uri) {
-        for (CallRecord cr : cache) if (cr.uri.equals(uri)) return cr;
-        return null;
+    /**
+     * 메모리 인덱스만 봅니다(I/O 없음). keyset 모드에서 인덱스 상한 밖의 항목은 null이므로
+     * 호출 측은 목록에서 받은 CallRecord를 그대로 넘겨 쓰는 편이 맞습니다.
+     */
+    @Override public @Nullable CallRecord getByUri(@NonNull Uri uri) {
+        return index.get(uri);
     }
 }
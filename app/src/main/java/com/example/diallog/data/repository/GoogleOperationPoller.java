@@ -0,0 +1,195 @@
+package com.example.diallog.data.repository;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.auth.AuthTokenProvider;
+import com.example.diallog.data.network.GoogleOperationResponse;
+import com.example.diallog.data.network.GoogleSttApi;
+import com.example.diallog.data.network.GoogleSttResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * GoogleOperationPoller
+ * - 진행 중인 long-running 작업들을 스레드 하나에서 함께 폴링합니다. 작업마다 스레드를 재우지 않습니다.
+ * - 첫 폴링은 오디오 길이로 추정한 완료 예상 시각(ETA)에 하고, 이후에는 지수 백오프합니다.
+ * - 같은 시점에 만기인 작업들은 토큰을 한 번만 받아 비동기 호출로 한꺼번에 확인합니다.
+ */
+final class GoogleOperationPoller {
+    private static final String TAG = "GoogleOpPoller";
+
+    /** 처리 시간 / 오디오 길이 추정치 */
+    private static final double ETA_RATIO = 0.3;
+    private static final long MIN_FIRST_POLL_MS = 1_000L;
+    private static final long MAX_FIRST_POLL_MS = 60_000L;
+    private static final long MAX_DELAY_MS = 10_000L;
+    private static final int MAX_POLLS = 60;
+    /** 이 간격 안에 만기가 되는 작업은 같은 차례에 묶어서 확인 */
+    private static final long BATCH_WINDOW_MS = 500L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "google-op-poller");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final class Op {
+        final String name;
+        final CompletableFuture<GoogleSttResponse> future = new CompletableFuture<>();
+        @Nullable final TranscriptionListener listener;
+        long dueAt;
+        long delayMs;
+        int polls;
+        boolean inFlight;   // SCHEDULER 스레드에서만 읽고 씀
+        boolean tokenRefreshed; // 직전 폴링이 401/403이라 토큰을 새로 받았는지
+
+        Op(String name, long dueAt, @Nullable TranscriptionListener listener) {
+            this.name = name;
+            this.listener = listener;
+            this.dueAt = dueAt;
+            this.delayMs = MIN_FIRST_POLL_MS;
+        }
+    }
+
+    private final GoogleSttApi api;
+    private final AuthTokenProvider tokenProvider;
+    private final Map<String, Op> ops = new ConcurrentHashMap<>();
+
+    GoogleOperationPoller(@NonNull GoogleSttApi api, @NonNull AuthTokenProvider tokenProvider) {
+        this.api = api;
+        this.tokenProvider = tokenProvider;
+    }
+
+    /**
+     * 작업 완료를 기다리는 future. 취소하면 다음 차례에 추적 목록에서 빠집니다.
+     * @param audioDurationMs 첫 폴링 시각 추정용. 모르면 0 이하.
+     * @param listener        폴링마다 POLL 단계를 받습니다. 폴링 스레드에서 호출됩니다.
+     */
+    @NonNull
+    CompletableFuture<GoogleSttResponse> track(@NonNull String name, long audioDurationMs,
+                                               @Nullable TranscriptionListener listener) {
+        long eta = audioDurationMs > 0
+                ? Math.min(MAX_FIRST_POLL_MS, Math.max(MIN_FIRST_POLL_MS, (long) (audioDurationMs * ETA_RATIO)))
+                : MIN_FIRST_POLL_MS;
+        Op op = new Op(name, SystemClock.elapsedRealtime() + eta, listener);
+        ops.put(name, op);
+        Log.i(TAG, "track name=" + name + " firstPollMs=" + eta + " pending=" + ops.size());
+        SCHEDULER.schedule(this::tick, eta, TimeUnit.MILLISECONDS);
+        return op.future;
+    }
+
+    /** 만기가 된 작업들을 모아 토큰 한 번으로 폴링합니다. SCHEDULER 스레드에서만 실행됩니다. */
+    private void tick() {
+        long now = SystemClock.elapsedRealtime();
+        List<Op> due = new ArrayList<>();
+        for (Op op : ops.values()) {
+            if (op.future.isDone()) {
+                ops.remove(op.name, op);
+                continue;
+            }
+            if (!op.inFlight && op.dueAt <= now + BATCH_WINDOW_MS) due.add(op);
+        }
+        if (due.isEmpty()) return;
+
+        String token;
+        try {
+            token = tokenProvider.getToken();
+        } catch (Exception e) {
+            for (Op op : due) fail(op, new IOException("Google STT token fetch failed: " + e.getMessage(), e));
+            return;
+        }
+        Log.d(TAG, "tick due=" + due.size() + " pending=" + ops.size());
+        for (Op op : due) {
+            op.inFlight = true;
+            op.polls++;
+            api.getOperation("Bearer " + token, op.name).enqueue(new Callback<GoogleOperationResponse>() {
+                @Override
+                public void onResponse(@NonNull Call<GoogleOperationResponse> call,
+                                       @NonNull Response<GoogleOperationResponse> response) {
+                    SCHEDULER.execute(() -> onPolled(op, response));
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<GoogleOperationResponse> call, @NonNull Throwable t) {
+                    SCHEDULER.execute(() -> fail(op, new IOException("Google STT operation poll failed", t)));
+                }
+            });
+        }
+    }
+
+    private void onPolled(@NonNull Op op, @NonNull Response<GoogleOperationResponse> poll) {
+        op.inFlight = false;
+        if (op.future.isDone()) {
+            ops.remove(op.name, op);
+            return;
+        }
+        if (poll.code() == 401 || poll.code() == 403) {
+            // 토큰을 한 번만 새로 받아 다시 확인합니다. 새 토큰으로도 거부되면 권한 문제로 보고 실패 처리합니다.
+            if (op.tokenRefreshed) {
+                fail(op, SttServiceException.forHttp(poll.code(), "Google STT operation poll denied: HTTP " + poll.code()));
+                return;
+            }
+            op.tokenRefreshed = true;
+            tokenProvider.invalidate();
+            backoff(op);
+            return;
+        }
+        op.tokenRefreshed = false;
+        GoogleOperationResponse body = poll.body();
+        if (!poll.isSuccessful() || body == null) {
+            fail(op, SttServiceException.forHttp(poll.code(), "Google STT operation poll failed: HTTP " + poll.code()));
+            return;
+        }
+        if (body.error != null) {
+            fail(op, SttServiceException.forRpc(body.error.code, "Google STT operation error: " + body.error.message));
+            return;
+        }
+        if (body.done) {
+            ops.remove(op.name, op);
+            op.future.complete(body.response != null ? body.response : new GoogleSttResponse());
+            Log.i(TAG, "done name=" + op.name + " polls=" + op.polls);
+            return;
+        }
+        if (op.listener != null) op.listener.onStage(TranscriptionListener.Stage.POLL, op.polls, MAX_POLLS);
+        backoff(op);
+    }
+
+    /** 폴링 상한 안이면 지수 백오프로 다음 폴링을 잡습니다. 인증 오류로 다시 확인할 때도 횟수에 셉니다. */
+    private void backoff(@NonNull Op op) {
+        if (op.polls >= MAX_POLLS) {
+            fail(op, new IOException("Google STT operation timed out"));
+            return;
+        }
+        long delay = op.delayMs;
+        op.delayMs = Math.min(op.delayMs * 2L, MAX_DELAY_MS);
+        reschedule(op, delay);
+    }
+
+    private void reschedule(@NonNull Op op, long delayMs) {
+        op.dueAt = SystemClock.elapsedRealtime() + delayMs;
+        SCHEDULER.schedule(this::tick, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void fail(@NonNull Op op, @NonNull Exception e) {
+        op.inFlight = false;
+        ops.remove(op.name, op);
+        op.future.completeExceptionally(e);
+        Log.w(TAG, "failed name=" + op.name, e);
+    }
+}
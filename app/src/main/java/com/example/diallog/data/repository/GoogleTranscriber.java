@@ -12,23 +12,22 @@ import com.example.diallog.R;
 import com.example.diallog.auth.AuthTokenProvider;
 import com.example.diallog.data.model.TranscriptionResult;
 import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
+import com.example.diallog.data.network.Base64FileRequestBody;
 import com.example.diallog.data.network.GoogleOperationResponse;
 import com.example.diallog.data.network.GoogleSttApi;
 import com.example.diallog.data.network.GoogleSttRequest;
 import com.example.diallog.data.network.GoogleSttResponse;
 import com.example.diallog.utils.MediaResolver;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.Response;
 import retrofit2.Retrofit;
@@ -78,21 +77,20 @@ public final class GoogleTranscriber implements Transcriber {
     }
 
     private static final long QUICK_CALL_TIMEOUT_MS = 10_000L;
-    private static final long LONG_RUNNING_INITIAL_DELAY_MS = 1_000L;
-    private static final long LONG_RUNNING_MAX_DELAY_MS = 10_000L;
-    private static final int MAX_LONG_RUNNING_POLLS = 60;
 
 
     private final Context app;
     private final GoogleSttApi api;
     private final AuthTokenProvider tokenProvider;
     private final String language;
+    private final GoogleOperationPoller poller;
 
     public GoogleTranscriber(Context app, Retrofit retrofit, AuthTokenProvider tokenProvider, String language) {
         this.app = app.getApplicationContext();
         this.api = retrofit.create(GoogleSttApi.class);
         this.tokenProvider = tokenProvider;
         this.language = language;
+        this.poller = new GoogleOperationPoller(api, tokenProvider);
     }
 
     @Override
@@ -148,10 +146,10 @@ public final class GoogleTranscriber implements Transcriber {
             if (!response.isSuccessful() || response.body() == null) {
                 String errorMessage = extractError(response);
 
-                throw new IOException("Google STT quick failed: HTTP " + response.code() + errorMessage);
+                throw SttServiceException.forHttp(response.code(), "Google STT quick failed: HTTP " + response.code() + errorMessage);
             }
 
-            List<TranscriptSegment> segments = mapResponse(response.body());
+            List<TranscriptSegment> segments = segmentsOf(response.body());
             return TranscriptionResult.interim(segments, null);
         } catch (IOException ioe) {
             throw new RuntimeException("Google STT I/O error: " + ioe.getMessage(), ioe);
@@ -168,26 +166,34 @@ public final class GoogleTranscriber implements Transcriber {
         }
         MediaResolver.ResolvedAudio resolved = null;
         try {
+            CallCanceller.emit(TranscriptionListener.Stage.RESOLVE, 0, 0);
             MediaResolver resolver = new MediaResolver(app);
             resolved = resolver.resolveWithFallback(input.uri, app.getResources(), R.raw.sample1, "sample1.mp3");
 
-            int sampleRateHz = GoogleSttAudioHelper.extractSampleRateHz(resolved.file);
-            byte[] audioBytes = readFile(resolved.file);
-            String base64 = Base64.encodeToString(audioBytes, Base64.NO_WRAP);
+            // 목록 스캔 때 probe해 둔 값이 있으면 재사용하고, 없을 때만 파일을 직접 읽습니다.
+            AudioMeta meta = AudioMetaEnricher.getOrProbe(app, input.uri);
+            int sampleRateHz = meta != null && meta.sampleRateHz > 0
+                    ? meta.sampleRateHz
+                    : GoogleSttAudioHelper.extractSampleRateHz(resolved.file);
 
+            // 파일을 통째로 읽지 않고 base64 JSON을 블록 단위로 스트리밍합니다.
             String effectiveLanguage = TextUtils.isEmpty(languageCode) ? language : languageCode;
-            GoogleSttRequest request = buildRequest(base64, effectiveLanguage, resolved.mime, sampleRateHz, false);
+            RequestBody requestBody = ProgressRequestBody.wrap(new Base64FileRequestBody(
+                    buildConfig(effectiveLanguage, resolved.mime, sampleRateHz, false), resolved.file));
 
-            GoogleOperationResponse operation = startLongRunning(request);
+            GoogleOperationResponse operation = startLongRunning(requestBody);
             GoogleSttResponse body;
             if (operation.done && operation.response != null) {
                 body = operation.response;
             } else {
-                body = awaitOperation(operation.name);
+                // 폴링은 공유 poller가 맡고 여기서는 완료만 기다립니다.
+                body = awaitOperation(operation.name, meta != null ? meta.durationMs : 0L);
             }
 
-            List<TranscriptSegment> segments = mapResponse(body);
-            return TranscriptionResult.finalResult(segments, null);
+            CallCanceller.emit(TranscriptionListener.Stage.MAP, 0, 0);
+            List<TranscriptSegment> segments = segmentsOf(body);
+            return TranscriptionResult.finalResult(segments,
+                    body != null && body.words != null ? body.words : WordTimings.EMPTY, null);
         } catch (IOException ioe) {
             throw new RuntimeException("Google STT I/O error: " + ioe.getMessage(), ioe);
         } catch (InterruptedException ie) {
@@ -206,83 +212,55 @@ public final class GoogleTranscriber implements Transcriber {
 
     private Response<GoogleSttResponse> executeRecognize(GoogleSttRequest request, long callTimeoutMs) throws Exception {
         String token = tokenProvider.getToken();
-        Call<GoogleSttResponse> call = api.recognize("Bearer " + token, request);
+        Call<GoogleSttResponse> call = CallCanceller.track(api.recognize("Bearer " + token, request));
         if (callTimeoutMs > 0L) {
             call.timeout().timeout(callTimeoutMs, TimeUnit.MILLISECONDS);
         }
         return call.execute();
     }
 
-    private Response<GoogleOperationResponse> executeLongRunning(GoogleSttRequest request) throws Exception {
+    private Response<GoogleOperationResponse> executeLongRunning(RequestBody body) throws Exception {
         String token = tokenProvider.getToken();
 
-        Call<GoogleOperationResponse> call = api.longRunningRecognize("Bearer " + token, request);
+        Call<GoogleOperationResponse> call = CallCanceller.track(api.longRunningRecognizeStream("Bearer " + token, body));
         return call.execute();
     }
 
-    private Response<GoogleOperationResponse> executeGetOperation(String name) throws Exception {
-        String token = tokenProvider.getToken();
-        Call<GoogleOperationResponse> call = api.getOperation("Bearer " + token, name);
-        return call.execute();
-    }
-
-    private GoogleOperationResponse startLongRunning(GoogleSttRequest request) throws Exception {
-        Response<GoogleOperationResponse> response = executeLongRunning(request);
+    private GoogleOperationResponse startLongRunning(RequestBody body) throws Exception {
+        Response<GoogleOperationResponse> response = executeLongRunning(body);
         if (response.code() == 401 || response.code() == 403) {
             tokenProvider.invalidate();
-            response = executeLongRunning(request);
+            response = executeLongRunning(body);
         }
         if (!response.isSuccessful() || response.body() == null) {
             String errorMessage = extractError(response);
-            throw new IOException("Google STT long running failed: HTTP " + response.code() + errorMessage);
+            throw SttServiceException.forHttp(response.code(), "Google STT long running failed: HTTP " + response.code() + errorMessage);
         }
         GoogleOperationResponse body = response.body();
         if (body.error != null) {
-            throw new IOException("Google STT long running error: " + body.error.message);
+            throw SttServiceException.forRpc(body.error.code, "Google STT long running error: " + body.error.message);
         }
         if (TextUtils.isEmpty(body.name) && !body.done) {
-            throw new IOException("Google STT long running did not return operation name");
+            throw SttServiceException.permanent("Google STT long running did not return operation name");
         }
         return body;
     }
 
-    private GoogleSttResponse awaitOperation(@NonNull String name) throws Exception {
-        int attempts = 0;
-        long delayMs = LONG_RUNNING_INITIAL_DELAY_MS;
-        while (true) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new InterruptedException("Interrupted while polling Google STT operation");
-            }
-            Response<GoogleOperationResponse> poll = executeGetOperation(name);
-            if (poll.code() == 401 || poll.code() == 403) {
-                tokenProvider.invalidate();
-                poll = executeGetOperation(name);
-            }
-            if (!poll.isSuccessful() || poll.body() == null) {
-                String errorMessage = extractError(poll);
-                throw new IOException("Google STT operation poll failed: HTTP " + poll.code() + errorMessage);
-            }
-            GoogleOperationResponse body = poll.body();
-            if (body.error != null) {
-                throw new IOException("Google STT operation error: " + body.error.message);
-            }
-            if (body.done) {
-                if (body.response != null) {
-                    return body.response;
-                }
-                return new GoogleSttResponse();
-            }
-            attempts++;
-            if (attempts >= MAX_LONG_RUNNING_POLLS) {
-                throw new IOException("Google STT operation timed out");
-            }
-            try {
-                Thread.sleep(Math.max(1L, delayMs));
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw ie;
-            }
-            delayMs = Math.min(delayMs * 2L, LONG_RUNNING_MAX_DELAY_MS);
+    private GoogleSttResponse awaitOperation(@NonNull String name, long audioDurationMs) throws Exception {
+        CallCanceller scope = CallCanceller.current();
+        CallCanceller.emit(TranscriptionListener.Stage.POLL, 0, 0);
+        CompletableFuture<GoogleSttResponse> done = poller.track(name, audioDurationMs,
+                scope != null ? scope.listener() : null);
+        try {
+            return done.get();
+        } catch (InterruptedException ie) {
+            done.cancel(false);
+            Thread.currentThread().interrupt();
+            throw ie;
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ee;
         }
     }
 
@@ -292,6 +270,18 @@ public final class GoogleTranscriber implements Transcriber {
                                           int sampleRateHz,
                                           boolean forceLinear16) {
         GoogleSttRequest request = new GoogleSttRequest();
+        request.config = buildConfig(languageCode, mimeType, sampleRateHz, forceLinear16);
+
+        GoogleSttRequest.Audio audio = new GoogleSttRequest.Audio();
+        audio.content = base64Content;
+        request.audio = audio;
+        return request;
+    }
+
+    private GoogleSttRequest.Config buildConfig(String languageCode,
+                                                @Nullable String mimeType,
+                                                int sampleRateHz,
+                                                boolean forceLinear16) {
         GoogleSttRequest.Config config = new GoogleSttRequest.Config();
         config.languageCode = TextUtils.isEmpty(languageCode) ? language : languageCode;
         config.enableAutomaticPunctuation = true;
@@ -307,137 +297,17 @@ public final class GoogleTranscriber implements Transcriber {
         } else {
             GoogleSttAudioHelper.applyEncoding(config, mimeType, sampleRateHz);
         }
-        request.config = config;
-
-        GoogleSttRequest.Audio audio = new GoogleSttRequest.Audio();
-        audio.content = base64Content;
-        request.audio = audio;
-        return request;
+        return config;
     }
 
-    private static List<TranscriptSegment> mapResponse(@Nullable GoogleSttResponse body) {
-        List<TranscriptSegment> segments = new ArrayList<>();
-        if (body == null || body.results == null || body.results.isEmpty()) {
-            return segments;
-        }
-
-        long lastEndMs = 0L;
-        for (GoogleSttResponse.Result result : body.results) {
-            if (result == null || result.alternatives == null || result.alternatives.isEmpty()) {
-                continue;
-            }
-            long resultEndMs = parseDurationToMillis(result.resultEndTime);
-
-            for (GoogleSttResponse.Alternative alternative : result.alternatives) {
-                if (alternative == null) {
-                    continue;
-                }
-
-                String transcript = alternative.transcript != null ? alternative.transcript.trim() : "";
-                if (transcript.isEmpty()) {
-                    continue;
-                }
-
-                long startMs = lastEndMs;
-                long endMs = lastEndMs;
-                boolean hasWords = alternative.words != null && !alternative.words.isEmpty();
-                boolean foundTimestamps = false;
-
-                if (hasWords) {
-                    long firstStart = -1L;
-                    long lastEnd = -1L;
-                    long lastStart = -1L;
-
-                    for (GoogleSttResponse.WordInfo wordInfo : alternative.words) {
-                        if (wordInfo == null) {
-                            continue;
-                        }
-
-                        long wordStart = parseDurationToMillis(wordInfo.startTime);
-                        long wordEnd = parseDurationToMillis(wordInfo.endTime);
-
-                        if (wordStart >= 0 && firstStart < 0) {
-                            firstStart = wordStart;
-                        }
-                        if (wordEnd >= 0) {
-                            lastEnd = wordEnd;
-                        }
-                        if (wordStart >= 0) {
-                            lastStart = wordStart;
-                        }
-                        if (wordStart >= 0 || wordEnd >= 0) {
-                            foundTimestamps = true;
-                        }
-                    }
-                    if (firstStart >= 0) {
-                        startMs = firstStart;
-                    }
-
-                    long candidateEnd = lastEnd >= 0 ? lastEnd : lastStart;
-                    if (candidateEnd >= 0) {
-                        endMs = candidateEnd;
-                    }
-                }
-
-                if (!hasWords || !foundTimestamps) {
-                    if (resultEndMs >= 0) {
-                        endMs = Math.max(resultEndMs, startMs);
-                    }
-                }
-
-                if (endMs < startMs) {
-                    endMs = startMs;
-                }
-
-                segments.add(new TranscriptSegment(startMs, endMs, transcript));
-                if (endMs > lastEndMs) {
-                    lastEndMs = endMs;
-                }
-            }
-            if (resultEndMs > lastEndMs) {
-                lastEndMs = resultEndMs;
-            }
-        }
-        return segments;
+    /** 구간은 응답 어댑터가 파싱하면서 이미 만들어 두었습니다. */
+    @NonNull
+    private static List<TranscriptSegment> segmentsOf(@Nullable GoogleSttResponse body) {
+        return body != null && body.segments != null ? body.segments : new ArrayList<>();
     }
 
 
 
-    private static long parseDurationToMillis(@Nullable String duration) {
-        if (TextUtils.isEmpty(duration)) {
-            return -1L;
-        }
-        String trimmed = duration.trim();
-        if (trimmed.endsWith("s") || trimmed.endsWith("S")) {
-            trimmed = trimmed.substring(0, trimmed.length() - 1);
-        }
-        if (trimmed.isEmpty()) {
-            return -1L;
-        }
-
-        try {
-            BigDecimal seconds = new BigDecimal(trimmed);
-            BigDecimal millis = seconds.multiply(BigDecimal.valueOf(1000L));
-            return millis.setScale(0, RoundingMode.HALF_UP).longValueExact();
-        } catch (NumberFormatException | ArithmeticException e) {
-            return -1L;
-        }
-    }
-
-
-
-    private static byte[] readFile(File file) throws IOException {
-        try (InputStream in = new FileInputStream(file);
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[8192];
-            int count;
-            while ((count = in.read(buffer)) != -1) {
-                out.write(buffer, 0, count);
-            }
-            return out.toByteArray();
-        }
-    }
-
     private static String extractError(Response<?> response) {
         try {
             if (response.errorBody() == null) {
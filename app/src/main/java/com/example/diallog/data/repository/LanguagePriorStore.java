@@ -0,0 +1,283 @@
+package com.example.diallog.data.repository;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.text.TextUtils;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LanguagePriorStore
+ * - 과거 감지된 언어를 전화번호/폴더/파일명 패턴별로 세어 둡니다.
+ * - 같은 키에서 충분히 한 언어로 수렴했으면 quick 감지 없이 그 언어로 바로 라우팅할 수 있습니다.
+ * - 최다 언어와 다른 결과가 나오거나 관측이 MAX_SAMPLES를 넘으면 그 키의 횟수를 반으로 줄여,
+ *   오래된 관측보다 최근 관측이 더 크게 반영되도록 합니다.
+ *
+ * 포맷: MAGIC, VERSION, count, [key, langCount, [tag, n]*]*
+ */
+public final class LanguagePriorStore {
+    private static final String TAG = "LanguagePriorStore";
+    private static final String FILE_NAME = "language_prior.bin";
+    private static final int MAGIC = 0x444C4C50; // "DLLP"
+    private static final int VERSION = 1;
+
+    /** 이 횟수 이상 관측되고 */
+    private static final int MIN_SAMPLES = 3;
+    /** 최다 언어 비율이 이 값 이상이면 확신 */
+    private static final double MIN_SHARE = 0.9;
+    /** 키당 관측 수 상한. 넘으면 반감합니다. */
+    private static final int MAX_SAMPLES = 20;
+
+    private static final Pattern PHONE = Pattern.compile("(\\+?82[- ]?|0)(1\\d)[- ]?(\\d{3,4})[- ]?(\\d{4})");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    @Nullable private static LanguagePriorStore shared;
+
+    @NonNull
+    public static synchronized LanguagePriorStore get(@NonNull Context context) {
+        if (shared == null) shared = new LanguagePriorStore(context.getApplicationContext());
+        return shared;
+    }
+
+    /** 확신할 수 있는 사전 언어 */
+    public static final class Prior {
+        @NonNull public final String languageTag;
+        @NonNull public final String key;
+        public final int samples;
+
+        Prior(@NonNull String languageTag, @NonNull String key, int samples) {
+            this.languageTag = languageTag;
+            this.key = key;
+            this.samples = samples;
+        }
+    }
+
+    private final Context app;
+    private final AtomicFile file;
+    private final Map<String, Map<String, Integer>> counts = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    private LanguagePriorStore(@NonNull Context app) {
+        this.app = app;
+        this.file = new AtomicFile(new File(app.getFilesDir(), FILE_NAME));
+    }
+
+    /**
+     * 파일 이름/폴더에서 키를 만듭니다. 앞쪽일수록 구체적입니다(전화번호 > 폴더 > 파일명 패턴).
+     */
+    @NonNull
+    public List<String> keysFor(@NonNull Uri uri) {
+        String name = null;
+        String folder = null;
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            File f = new File(uri.getPath());
+            name = f.getName();
+            folder = f.getParent();
+        } else if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
+            name = queryName(uri);
+            if (DocumentsContract.isDocumentUri(app, uri)) {
+                folder = parentOf(DocumentsContract.getDocumentId(uri));
+            } else if (MediaStore.AUTHORITY.equals(uri.getAuthority())) {
+                folder = queryMediaFolder(uri);
+            }
+        }
+
+        List<String> keys = new ArrayList<>(3);
+        if (name != null) {
+            Matcher m = PHONE.matcher(name);
+            if (m.find()) keys.add("phone:0" + m.group(2) + m.group(3) + m.group(4));
+        }
+        String normalized = CallIndex.normalizeFolder(folder);
+        if (!TextUtils.isEmpty(normalized)) keys.add("folder:" + normalized.toLowerCase(Locale.ROOT));
+        if (name != null) {
+            int dot = name.lastIndexOf('.');
+            String stem = dot > 0 ? name.substring(0, dot) : name;
+            keys.add("pattern:" + DIGITS.matcher(stem.toLowerCase(Locale.ROOT)).replaceAll("#"));
+        }
+        return keys;
+    }
+
+    /** 가장 구체적인 키부터 보고, 확신할 수 있는 첫 키의 언어를 돌려줍니다. */
+    @Nullable
+    public Prior lookup(@NonNull List<String> keys) {
+        ensureLoaded();
+        for (String key : keys) {
+            Map<String, Integer> langs = counts.get(key);
+            if (langs == null) continue;
+            synchronized (langs) {
+                int total = 0;
+                String best = null;
+                int bestCount = 0;
+                for (Map.Entry<String, Integer> e : langs.entrySet()) {
+                    total += e.getValue();
+                    if (e.getValue() > bestCount) {
+                        best = e.getKey();
+                        bestCount = e.getValue();
+                    }
+                }
+                if (best != null && total >= MIN_SAMPLES && bestCount >= MIN_SHARE * total) {
+                    return new Prior(best, key, total);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 실제 감지 결과를 모든 키에 기록하고 저장합니다.
+     * 그 키의 최다 언어와 다르면 기존 횟수를 먼저 반으로 줄이므로, 몇 번만 연달아 어긋나도 확신이 풀립니다.
+     */
+    public void record(@NonNull List<String> keys, @NonNull String languageTag) {
+        ensureLoaded();
+        for (String key : keys) {
+            Map<String, Integer> langs = counts.computeIfAbsent(key, k -> new HashMap<>());
+            synchronized (langs) {
+                String leader = null;
+                int leaderCount = 0;
+                int total = 0;
+                for (Map.Entry<String, Integer> e : langs.entrySet()) {
+                    total += e.getValue();
+                    if (e.getValue() > leaderCount) {
+                        leader = e.getKey();
+                        leaderCount = e.getValue();
+                    }
+                }
+                if ((leader != null && !leader.equals(languageTag)) || total >= MAX_SAMPLES) {
+                    Log.i(TAG, "record: decay key=" + key + " leader=" + leader + " got=" + languageTag
+                            + " total=" + total);
+                    halve(langs);
+                }
+                Integer n = langs.get(languageTag);
+                langs.put(languageTag, n == null ? 1 : n + 1);
+            }
+        }
+        save();
+    }
+
+    /** langs 잠금을 잡은 상태에서 호출. 0이 된 언어는 뺍니다. */
+    private static void halve(@NonNull Map<String, Integer> langs) {
+        Iterator<Map.Entry<String, Integer>> it = langs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> e = it.next();
+            int half = e.getValue() / 2;
+            if (half == 0) it.remove();
+            else e.setValue(half);
+        }
+    }
+
+    private void save() {
+        synchronized (file) {
+            FileOutputStream fos = null;
+            try {
+                fos = file.startWrite();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                List<Map.Entry<String, Map<String, Integer>>> rows = new ArrayList<>(counts.entrySet());
+                out.writeInt(rows.size());
+                for (Map.Entry<String, Map<String, Integer>> row : rows) {
+                    out.writeUTF(row.getKey());
+                    Map<String, Integer> langs = row.getValue();
+                    synchronized (langs) {
+                        out.writeInt(langs.size());
+                        for (Map.Entry<String, Integer> e : langs.entrySet()) {
+                            out.writeUTF(e.getKey());
+                            out.writeInt(e.getValue());
+                        }
+                    }
+                }
+                out.flush();
+                file.finishWrite(fos);
+            } catch (IOException e) {
+                Log.w(TAG, "save: failed", e);
+                if (fos != null) file.failWrite(fos);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (file) {
+            if (loaded) return;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+                if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String key = in.readUTF();
+                        int langCount = in.readInt();
+                        Map<String, Integer> langs = new HashMap<>();
+                        for (int j = 0; j < langCount; j++) langs.put(in.readUTF(), in.readInt());
+                        counts.putIfAbsent(key, langs);
+                    }
+                    Log.i(TAG, "load: keys=" + count);
+                } else {
+                    Log.w(TAG, "load: unsupported format");
+                }
+            } catch (FileNotFoundException e) {
+                // 아직 저장된 적 없음
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "load: corrupted store, ignoring", e);
+            }
+            loaded = true;
+        }
+    }
+
+    @Nullable
+    private String queryName(@NonNull Uri uri) {
+        try (Cursor c = app.getContentResolver().query(uri,
+                new String[] { OpenableColumns.DISPLAY_NAME }, null, null, null)) {
+            if (c != null && c.moveToFirst()) return c.getString(0);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "queryName: failed uri=" + uri, e);
+        }
+        return null;
+    }
+
+    @Nullable
+    private String queryMediaFolder(@NonNull Uri uri) {
+        String column = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                ? MediaStore.MediaColumns.RELATIVE_PATH : MediaStore.MediaColumns.DATA;
+        try (Cursor c = app.getContentResolver().query(uri, new String[] { column }, null, null, null)) {
+            if (c == null || !c.moveToFirst()) return null;
+            String value = c.getString(0);
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q ? value : parentOf(value);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "queryMediaFolder: failed uri=" + uri, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String parentOf(@Nullable String path) {
+        if (path == null) return null;
+        int slash = path.lastIndexOf('/');
+        return slash > 0 ? path.substring(0, slash) : null;
+    }
+}
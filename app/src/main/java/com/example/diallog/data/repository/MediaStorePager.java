@@ -0,0 +1,230 @@
+package com.example.diallog.data.repository;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.provider.MediaStore;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MediaStorePager
+ * - (DATE_MODIFIED, _ID) 내림차순 keyset 페이징으로 MediaStore 오디오를 한 페이지씩 조회합니다.
+ * - OFFSET 없이 "마지막으로 본 키보다 작은 행"만 읽으므로 깊은 페이지도 비용이 같습니다.
+ */
+final class MediaStorePager {
+    private static final String TAG = "MediaPager";
+    static final long MIN_DURATION_MS = 300L;
+
+    /** 페이지 경계. 이 키보다 오래된 행부터 다음 페이지가 시작됩니다. */
+    static final class Key {
+        final long dateModifiedSec;
+        final long id;
+
+        Key(long dateModifiedSec, long id) {
+            this.dateModifiedSec = dateModifiedSec;
+            this.id = id;
+        }
+    }
+
+    static final class Page {
+        @NonNull final List<CallRecord> records;
+        @Nullable final Key last;
+        final boolean exhausted;
+
+        Page(@NonNull List<CallRecord> records, @Nullable Key last, boolean exhausted) {
+            this.records = records;
+            this.last = last;
+            this.exhausted = exhausted;
+        }
+    }
+
+    private static final String[] PROJECTION = {
+            MediaStore.Audio.Media._ID,
+            MediaStore.Audio.Media.DISPLAY_NAME,
+            MediaStore.Audio.Media.DURATION,
+            MediaStore.Audio.Media.DATE_MODIFIED,
+            pathColumn()
+    };
+
+    private final ContentResolver resolver;
+    private final Set<String> audioExt;
+
+    MediaStorePager(@NonNull ContentResolver resolver, @NonNull Set<String> audioExt) {
+        this.resolver = resolver;
+        this.audioExt = audioExt;
+    }
+
+    @NonNull
+    static Uri contentUri() {
+        return (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R)
+                ? MediaStore.Audio.Media.getContentUri(MediaStore.VOLUME_EXTERNAL_PRIMARY)
+                : MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
+    }
+
+    /** API 29+: RELATIVE_PATH, 그 이하: DATA(절대 경로) */
+    @NonNull
+    static String pathColumn() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                ? MediaStore.Audio.Media.RELATIVE_PATH
+                : MediaStore.Audio.Media.DATA;
+    }
+
+    /** pathColumn() 값에서 폴더를 구합니다. DATA는 파일 경로이므로 상위 디렉터리를 사용합니다. */
+    @Nullable
+    static String folderOf(@Nullable String pathValue) {
+        if (pathValue == null) return null;
+        String dir = pathValue;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            int slash = dir.lastIndexOf('/');
+            dir = slash >= 0 ? dir.substring(0, slash) : "";
+        }
+        return CallIndex.normalizeFolder(dir);
+    }
+
+    /** 통화녹음 후보 공통 조건: 오디오 MIME, 크기 > 0, 최소 길이, 확장자 */
+    static void appendBaseSelection(@NonNull List<String> sel,
+                                    @NonNull List<String> args,
+                                    @NonNull Set<String> audioExt) {
+        sel.add(MediaStore.Audio.Media.MIME_TYPE + " LIKE ?");
+        args.add("audio/%");
+        sel.add(MediaStore.Audio.Media.SIZE + " > 0");
+        sel.add(MediaStore.Audio.Media.DURATION + " >= ?");
+        args.add(String.valueOf(MIN_DURATION_MS));
+        if (!audioExt.isEmpty()) {
+            List<String> like = new ArrayList<>();
+            for (String ext : audioExt) {
+                like.add("LOWER(" + MediaStore.Audio.Media.DISPLAY_NAME + ") LIKE ?");
+                args.add("%." + ext);
+            }
+            sel.add("(" + TextUtils.join(" OR ", like) + ")");
+        }
+    }
+
+    /** after보다 오래된 행을 최대 limit개 읽습니다. after가 null이면 가장 최신 행부터. */
+    @NonNull
+    Page next(@Nullable Key after, int limit) {
+        final Uri base = contentUri();
+        final List<String> sel = new ArrayList<>();
+        final List<String> args = new ArrayList<>();
+        appendBaseSelection(sel, args, audioExt);
+        if (after != null) {
+            String date = MediaStore.Audio.Media.DATE_MODIFIED;
+            String id = MediaStore.Audio.Media._ID;
+            sel.add("(" + date + " < ? OR (" + date + " = ? AND " + id + " < ?))");
+            args.add(String.valueOf(after.dateModifiedSec));
+            args.add(String.valueOf(after.dateModifiedSec));
+            args.add(String.valueOf(after.id));
+        }
+        final String selection = TextUtils.join(" AND ", sel);
+        final String[] selectionArgs = args.toArray(new String[0]);
+        final int pageSize = Math.max(1, limit);
+
+        Cursor cursor;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Bundle qb = new Bundle();
+            qb.putString(ContentResolver.QUERY_ARG_SQL_SELECTION, selection);
+            qb.putStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS, selectionArgs);
+            qb.putStringArray(ContentResolver.QUERY_ARG_SORT_COLUMNS, new String[] {
+                    MediaStore.Audio.Media.DATE_MODIFIED, MediaStore.Audio.Media._ID
+            });
+            qb.putInt(ContentResolver.QUERY_ARG_SORT_DIRECTION, ContentResolver.QUERY_SORT_DIRECTION_DESCENDING);
+            qb.putInt(ContentResolver.QUERY_ARG_LIMIT, pageSize);
+            cursor = resolver.query(base, PROJECTION, qb, null);
+        } else {
+            // Q 이전 MediaProvider는 "limit" 쿼리 파라미터로 LIMIT 절을 붙입니다. 무시하는 기기도 있어 아래에서 pageSize개만 읽습니다.
+            Uri limited = base.buildUpon()
+                    .appendQueryParameter("limit", String.valueOf(pageSize))
+                    .build();
+            String order = MediaStore.Audio.Media.DATE_MODIFIED + " DESC, "
+                    + MediaStore.Audio.Media._ID + " DESC";
+            cursor = resolver.query(limited, PROJECTION, selection, selectionArgs, order);
+        }
+        if (cursor == null) {
+            Log.i(TAG, "next: null cursor");
+            return new Page(new ArrayList<>(), after, true);
+        }
+
+        final List<CallRecord> out = new ArrayList<>(Math.min(pageSize, 64));
+        Key last = after;
+        int read = 0;
+        try {
+            final int iId = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media._ID);
+            final int iName = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DISPLAY_NAME);
+            final int iDur = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DURATION);
+            final int iDate = cursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DATE_MODIFIED);
+            final int iPath = cursor.getColumnIndexOrThrow(pathColumn());
+            while (read < pageSize && cursor.moveToNext()) {
+                read++;
+                long id = cursor.getLong(iId);
+                long dateSec = cursor.getLong(iDate);
+                last = new Key(dateSec, id);
+
+                String name = cursor.getString(iName);
+                if (name == null) continue;
+                out.add(new CallRecord(ContentUris.withAppendedId(base, id), name,
+                        cursor.getLong(iDur), Math.max(0L, dateSec * 1000L), CallRecord.Source.MEDIA_STORE,
+                        folderOf(cursor.getString(iPath))));
+            }
+        } finally {
+            cursor.close();
+        }
+        Log.i(TAG, "next: read=" + read + " limit=" + pageSize);
+        return new Page(out, last, read < pageSize);
+    }
+
+    /** MediaStore 단일 항목 URI면 _ID, 컬렉션 URI 등이면 -1 */
+    static long idOf(@NonNull Uri uri) {
+        if (!MediaStore.AUTHORITY.equals(uri.getAuthority())) return -1L;
+        String last = uri.getLastPathSegment();
+        if (last == null || last.isEmpty()) return -1L;
+        for (int i = 0; i < last.length(); i++) {
+            if (!Character.isDigit(last.charAt(i))) return -1L;
+        }
+        try {
+            return Long.parseLong(last);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * _ID 한 행만 공통 조건과 함께 조회합니다. 삭제되었거나 통화녹음 후보가 아니면 null.
+     * 반환 레코드의 uri는 contentUri() 기준으로 통일되므로 알림 URI의 볼륨 표기와 달라도 같은 항목으로 취급됩니다.
+     */
+    @Nullable
+    CallRecord findById(long id) {
+        final Uri base = contentUri();
+        final List<String> sel = new ArrayList<>();
+        final List<String> args = new ArrayList<>();
+        sel.add(MediaStore.Audio.Media._ID + " = ?");
+        args.add(String.valueOf(id));
+        appendBaseSelection(sel, args, audioExt);
+        try (Cursor c = resolver.query(base, PROJECTION, TextUtils.join(" AND ", sel),
+                args.toArray(new String[0]), null)) {
+            if (c == null || !c.moveToFirst()) return null;
+            String name = c.getString(c.getColumnIndexOrThrow(MediaStore.Audio.Media.DISPLAY_NAME));
+            if (name == null) return null;
+            long dur = c.getLong(c.getColumnIndexOrThrow(MediaStore.Audio.Media.DURATION));
+            long dateSec = c.getLong(c.getColumnIndexOrThrow(MediaStore.Audio.Media.DATE_MODIFIED));
+            String folder = folderOf(c.getString(c.getColumnIndexOrThrow(pathColumn())));
+            return new CallRecord(ContentUris.withAppendedId(base, id), name, dur,
+                    Math.max(0L, dateSec * 1000L), CallRecord.Source.MEDIA_STORE, folder);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "findById: failed id=" + id, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * 보낸 바이트 수를 UPLOAD 단계로 알리는 RequestBody 래퍼.
+ * 만든 스레드의 범위(CallCanceller)에서 리스너를 잡아 둡니다. 리스너가 없으면 원본을 그대로 돌려줍니다.
+ */
+final class ProgressRequestBody extends RequestBody {
+    /** 너무 잦은 알림을 막기 위한 최소 간격(바이트) */
+    private static final long REPORT_STEP = 64 * 1024;
+
+    private final RequestBody delegate;
+    private final TranscriptionListener listener;
+
+    private ProgressRequestBody(@NonNull RequestBody delegate, @NonNull TranscriptionListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @NonNull
+    static RequestBody wrap(@NonNull RequestBody body) {
+        CallCanceller scope = CallCanceller.current();
+        TranscriptionListener l = scope != null ? scope.listener() : null;
+        return l != null ? new ProgressRequestBody(body, l) : body;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        final long total = Math.max(0L, contentLength());
+        // 재시도(401 후 재전송 등)마다 0부터 다시 셉니다.
+        listener.onStage(TranscriptionListener.Stage.UPLOAD, 0, total);
+        BufferedSink counting = Okio.buffer(new ForwardingSink(sink) {
+            private long written;
+            private long reported;
+
+            @Override
+            public void write(@NonNull Buffer source, long byteCount) throws IOException {
+                super.write(source, byteCount);
+                written += byteCount;
+                if (written - reported >= REPORT_STEP || written == total) {
+                    reported = written;
+                    listener.onStage(TranscriptionListener.Stage.UPLOAD, written, total);
+                }
+            }
+        });
+        delegate.writeTo(counting);
+        counting.flush();
+    }
+}
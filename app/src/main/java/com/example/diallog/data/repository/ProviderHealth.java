@@ -0,0 +1,177 @@
+package com.example.diallog.data.repository;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ProviderHealth
+ * - 제공자별 지연(EWMA), 오류율(EWMA), 연속 실패를 추적하는 서킷 브레이커.
+ * - CLOSED: 정상. 연속 실패가 쌓이거나 오류율이 높으면 OPEN.
+ * - OPEN: 호출하지 않고 다른 제공자로 보냅니다. 대기 시간이 지나면 HALF_OPEN.
+ * - HALF_OPEN: 시험 호출 하나만 허용. 성공하면 CLOSED, 실패하면 대기 시간을 늘려 다시 OPEN.
+ */
+final class ProviderHealth {
+    private static final String TAG = "ProviderHealth";
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final double ALPHA = 0.3;
+    private static final int FAILURES_TO_OPEN = 3;
+    private static final double ERROR_RATE_TO_OPEN = 0.5;
+    private static final int MIN_SAMPLES_FOR_RATE = 5;
+    /** 이보다 오래 걸린 성공은 오류율에 절반만큼 반영합니다. */
+    private static final long SLOW_CALL_MS = 90_000L;
+    private static final long BASE_COOLDOWN_MS = 30_000L;
+    private static final long MAX_COOLDOWN_MS = 10 * 60_000L;
+    /** 백분위 계산에 쓰는 최근 성공 지연(오디오 1초당) 개수와 최소 표본 수 */
+    private static final int LATENCY_WINDOW = 50;
+    private static final int MIN_LATENCY_SAMPLES = 10;
+
+    private final String name;
+    private State state = State.CLOSED;
+    private double latencyEwmaMs = -1;
+    private double errorRateEwma;
+    private int samples;
+    private int consecutiveFailures;
+    private int timeouts;
+    private long openedAt;
+    private long cooldownMs = BASE_COOLDOWN_MS;
+    private boolean probeInFlight;
+    // 오디오 길이를 아는 성공 호출의 "오디오 1초당 지연(ms)". 길이에 따라 지연이 크게 달라 원시 지연 대신 씁니다.
+    private final long[] recentLatencies = new long[LATENCY_WINDOW];
+    private int recentCount;
+    private int recentNext;
+
+    ProviderHealth(@NonNull String name) {
+        this.name = name;
+    }
+
+    /** 호출해도 되는지. HALF_OPEN 전환 시 이 호출이 시험 호출이 됩니다. */
+    synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (SystemClock.elapsedRealtime() - openedAt < cooldownMs) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                Log.i(TAG, name + " half_open probe");
+                return true;
+            default:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /** 상태를 바꾸지 않고 정상(CLOSED)인지만 봅니다. 추측 실행 여부 판단용. */
+    synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    synchronized void recordSuccess(long latencyMs) {
+        recordSuccess(latencyMs, 0L);
+    }
+
+    /** @param audioMs 전사한 오디오 길이. 0 이하면(모르면) 백분위 표본에는 넣지 않습니다. */
+    synchronized void recordSuccess(long latencyMs, long audioMs) {
+        updateLatency(latencyMs);
+        if (audioMs > 0) {
+            recentLatencies[recentNext] = perAudioSecond(latencyMs, audioMs);
+            recentNext = (recentNext + 1) % LATENCY_WINDOW;
+            recentCount = Math.min(recentCount + 1, LATENCY_WINDOW);
+        }
+        updateErrorRate(latencyMs > SLOW_CALL_MS ? 0.5 : 0.0);
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probeInFlight = false;
+            cooldownMs = BASE_COOLDOWN_MS;
+            Log.i(TAG, name + " closed after probe " + describe());
+        }
+    }
+
+    synchronized void recordFailure(long latencyMs, @NonNull Throwable error) {
+        updateLatency(latencyMs);
+        updateErrorRate(1.0);
+        consecutiveFailures++;
+        if (isTimeout(error)) timeouts++;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            cooldownMs = Math.min(cooldownMs * 2L, MAX_COOLDOWN_MS);
+            open();
+        } else if (state == State.CLOSED
+                && (consecutiveFailures >= FAILURES_TO_OPEN
+                || (samples >= MIN_SAMPLES_FOR_RATE && errorRateEwma >= ERROR_RATE_TO_OPEN))) {
+            open();
+        }
+    }
+
+    /**
+     * 최근 성공 호출의 오디오 1초당 지연(ms)의 p 백분위(0~1). 표본이 부족하면 -1.
+     * 오디오 길이(초)를 곱하면 그 길이에 대한 예상 지연이 됩니다.
+     */
+    synchronized long latencyPerAudioSecondPercentile(double p) {
+        if (recentCount < MIN_LATENCY_SAMPLES) return -1L;
+        long[] sorted = Arrays.copyOf(recentLatencies, recentCount);
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(p * recentCount) - 1;
+        return sorted[Math.max(0, Math.min(recentCount - 1, idx))];
+    }
+
+    static long perAudioSecond(long latencyMs, long audioMs) {
+        return Math.max(1L, latencyMs * 1000L / audioMs);
+    }
+
+    /** 시험 호출이 결과 없이 끝났을 때(취소 등) 다음 시험을 허용합니다. */
+    synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    @NonNull
+    synchronized State state() {
+        return state;
+    }
+
+    /** route 메타데이터용 짧은 표기. 예: clova=open */
+    @NonNull
+    synchronized String tag() {
+        return name + "=" + state.name().toLowerCase(Locale.US);
+    }
+
+    @NonNull
+    synchronized String describe() {
+        return String.format(Locale.US, "%s{state=%s, latencyMs=%.0f, errorRate=%.2f, consecutive=%d, timeouts=%d}",
+                name, state, latencyEwmaMs, errorRateEwma, consecutiveFailures, timeouts);
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = SystemClock.elapsedRealtime();
+        Log.w(TAG, name + " opened cooldownMs=" + cooldownMs + " " + describe());
+    }
+
+    private void updateLatency(long latencyMs) {
+        latencyEwmaMs = latencyEwmaMs < 0 ? latencyMs : ALPHA * latencyMs + (1 - ALPHA) * latencyEwmaMs;
+    }
+
+    private void updateErrorRate(double sample) {
+        errorRateEwma = samples == 0 ? sample : ALPHA * sample + (1 - ALPHA) * errorRateEwma;
+        samples++;
+    }
+
+    private static boolean isTimeout(@NonNull Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof SocketTimeoutException) return true;
+            if (c instanceof InterruptedIOException && "timeout".equals(c.getMessage())) return true;
+        }
+        return false;
+    }
+}
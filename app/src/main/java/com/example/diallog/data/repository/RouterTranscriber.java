@@ -1,5 +1,6 @@
 package com.example.diallog.data.repository;
 
+import android.content.Context;
 import android.net.Uri;
 import android.os.SystemClock;
 import android.text.TextUtils;
@@ -10,6 +11,7 @@ import androidx.annotation.Nullable;
 
 import com.example.diallog.data.model.TranscriptSegment;
 import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.model.WordTimings;
 import com.example.diallog.utils.AudioSnipper;
 import com.example.diallog.utils.LangMap;
 
@@ -17,28 +19,98 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-
-import android.util.Log;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class RouterTranscriber implements Transcriber {
     private static final String TAG = "RouterTranscriber";
 
     private static final String QUICK_LANGUAGE = "en-US";
     private static final int SNIP_SECONDS = 20;
+    /** 사전 언어를 확신해도 이 비율만큼은 quick 감지를 돌려 변화를 잡아냅니다. */
+    private static final double PRIOR_VERIFY_RATE = 0.1;
+    /** 1차 제공자가 최근 지연의 이 백분위 안에 답하지 않으면 2차 제공자로 헤지합니다. */
+    private static final double DEFAULT_HEDGE_PERCENTILE = 0.95;
+    /** 헤지 요청은 1차 요청 수의 이 비율을 넘지 않습니다. */
+    private static final double HEDGE_BUDGET = 0.05;
 
 
+    @Nullable private final Context app;  // 오디오 길이 조회용. null이면 헤지하지 않습니다.
     private final Transcriber clova;
     private final GoogleTranscriber google;
     private final LanguageDetector detector;
     private final AudioSnipper snipper;
+    @Nullable private final String speculativeLanguage;
+    @Nullable private final LanguagePriorStore priors;
+    private final ExecutorService speculative = Executors.newCachedThreadPool();
+    private final ProviderHealth clovaHealth = new ProviderHealth("clova");
+    private final ProviderHealth googleHealth = new ProviderHealth("google");
+    private final double hedgePercentile;
+    private final AtomicLong primaryCalls = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final Random verifySampler = new Random();
+
     public RouterTranscriber(@NonNull Transcriber clova,
                              @NonNull GoogleTranscriber google,
                              @NonNull LanguageDetector detector,
                              @NonNull AudioSnipper snipper) {
+        this(null, clova, google, detector, snipper, null, null, DEFAULT_HEDGE_PERCENTILE);
+    }
+
+    public RouterTranscriber(@NonNull Transcriber clova,
+                             @NonNull GoogleTranscriber google,
+                             @NonNull LanguageDetector detector,
+                             @NonNull AudioSnipper snipper,
+                             @Nullable String speculativeLanguage,
+                             @Nullable LanguagePriorStore priors) {
+        this(null, clova, google, detector, snipper, speculativeLanguage, priors, DEFAULT_HEDGE_PERCENTILE);
+    }
+
+    public RouterTranscriber(@NonNull Context context,
+                             @NonNull Transcriber clova,
+                             @NonNull GoogleTranscriber google,
+                             @NonNull LanguageDetector detector,
+                             @NonNull AudioSnipper snipper,
+                             @Nullable String speculativeLanguage,
+                             @Nullable LanguagePriorStore priors) {
+        this(context, clova, google, detector, snipper, speculativeLanguage, priors, DEFAULT_HEDGE_PERCENTILE);
+    }
+
+    /**
+     * @param speculativeLanguage null이 아니면 quick 감지와 동시에 이 언어로 Clova 전사를 미리 시작합니다.
+     *                            감지 결과가 같은 Clova 언어면 그 결과를 쓰고, 다르면 취소 후 원래 경로로 보냅니다.
+     * @param priors              null이 아니면 폴더/번호별 과거 감지 결과로 quick 감지를 건너뜁니다.
+     * @param context             오디오 길이를 읽는 데 씁니다. 헤지 기준이 오디오 1초당 지연이라 null이면 헤지하지 않습니다.
+     * @param hedgePercentile     Clova가 최근 지연(오디오 1초당)의 이 백분위(0~1) × 오디오 길이 안에 답하지 않으면
+     *                            Google로 헤지. 0 이하면 헤지 안 함.
+     */
+    public RouterTranscriber(@Nullable Context context,
+                             @NonNull Transcriber clova,
+                             @NonNull GoogleTranscriber google,
+                             @NonNull LanguageDetector detector,
+                             @NonNull AudioSnipper snipper,
+                             @Nullable String speculativeLanguage,
+                             @Nullable LanguagePriorStore priors,
+                             double hedgePercentile) {
+        this.app = context != null ? context.getApplicationContext() : null;
         this.clova = clova;
         this.google = google;
         this.detector = detector;
         this.snipper = snipper;
+        this.speculativeLanguage = speculativeLanguage;
+        this.priors = priors;
+        this.hedgePercentile = hedgePercentile;
     }
 
     @Override
@@ -51,10 +123,46 @@ public final class RouterTranscriber implements Transcriber {
         long routeStart = SystemClock.elapsedRealtime();
         Log.i(TAG, "route.start uri=" + audioUri);
 
+        List<String> priorKeys = Collections.emptyList();
+        if (priors != null) {
+            priorKeys = priors.keysFor(audioUri);
+            LanguagePriorStore.Prior prior = priors.lookup(priorKeys);
+            if (prior != null) {
+                if (verifySampler.nextDouble() >= PRIOR_VERIFY_RATE) {
+                    Log.i(TAG, "prior.hit key=" + prior.key + " lang=" + prior.languageTag + " samples=" + prior.samples);
+                    return routeTo(audioUri, routeStart, "prior", 0, prior.languageTag, null);
+                }
+                Log.i(TAG, "prior.verify key=" + prior.key + " lang=" + prior.languageTag);
+            }
+        }
+
+        // 가장 흔한 최종 경로(Clova)를 quick 감지와 병렬로 시작
+        Attempt speculation = null;
+        // Clova 브레이커가 닫혀(정상) 있을 때만 추측 실행합니다.
+        if (speculativeLanguage != null && clovaHealth.isClosed()) {
+            final String specLanguage = speculativeLanguage;
+            speculation = startAttempt("clova", () -> callClova(audioUri, specLanguage), null);
+            Log.i(TAG, "spec.start provider=clova lang=" + specLanguage);
+        }
+        try {
+            return detectAndRoute(audioUri, routeStart, speculation, priorKeys);
+        } finally {
+            // 감지 도중 예외가 나도 미리 보낸 요청이 남지 않도록
+            if (speculation != null && !speculation.isDone()) speculation.abandon();
+        }
+    }
+
+    @NonNull
+    private TranscriptionResult detectAndRoute(@NonNull Uri audioUri,
+                                               long routeStart,
+                                               @Nullable Attempt speculation,
+                                               @NonNull List<String> priorKeys) {
+        CallCanceller.emit(TranscriptionListener.Stage.SNIP, 0, 0);
         AudioSnipper.SnippedAudio snippedAudio = snipper.snipHead(audioUri, SNIP_SECONDS);
         long quickStart = SystemClock.elapsedRealtime();
         TranscriptionResult quickResult = null;
         if (snippedAudio != null && !snippedAudio.isEmpty()) {
+            CallCanceller.emit(TranscriptionListener.Stage.QUICK, 0, 0);
             try {
                 quickResult = google.transcribeQuick(snippedAudio.data, snippedAudio.sampleRateHz, QUICK_LANGUAGE);
             } catch (RuntimeException quickError) {
@@ -71,44 +179,299 @@ public final class RouterTranscriber implements Transcriber {
 
         Optional<String> detectedTag = Optional.empty();
         if (snippetLen > 0) {
+            CallCanceller.emit(TranscriptionListener.Stage.DETECT, 0, 0);
             detectedTag = detector.detect(snippet);
         }
         String languageTag = detectedTag.orElse(null);
         Log.i(TAG, "mlkit.detect result=" + (languageTag != null ? languageTag : "unknown")
                 + " snippetLen=" + snippetLen);
+        // 실제로 감지한 결과만 기록합니다. 사전 언어로 건너뛴 결과를 다시 세면 스스로 강화됩니다.
+        if (priors != null && languageTag != null && !priorKeys.isEmpty()) {
+            priors.record(priorKeys, languageTag);
+        }
 
         String routePrefix = quickResult != null ? "quick" : "quick_fail";
+        return routeTo(audioUri, routeStart, routePrefix, snippetLen, languageTag, speculation);
+    }
+
+    /** 감지(또는 사전 언어)로 정한 언어에 맞는 제공자로 전체 전사를 보냅니다. */
+    @NonNull
+    private TranscriptionResult routeTo(@NonNull Uri audioUri,
+                                        long routeStart,
+                                        @NonNull String routePrefix,
+                                        int snippetLen,
+                                        @Nullable String languageTag,
+                                        @Nullable Attempt speculation) {
         String provider = "google";
         String route = routePrefix + "->google";
         String finalLanguage = LangMap.toGoogleCode(languageTag);
 
-        TranscriptionResult finalResult;
-        List<TranscriptSegment> finalSegments = Collections.emptyList();
-
         String clovaLanguage = LangMap.toClovaCode(languageTag);
-        if (clovaLanguage != null) {
-            Log.i(TAG, "route.decision provider=clova lang=" + clovaLanguage);
+        Attempt primary = null;
+        String primaryRoute = routePrefix + "->clova";
+        if (speculation != null) {
+            if (clovaLanguage != null && clovaLanguage.equals(speculativeLanguage)) {
+                Log.i(TAG, "spec.hit lang=" + clovaLanguage);
+                primary = speculation;
+                primaryRoute = routePrefix + "->spec_clova";
+            } else {
+                speculation.abandon();
+                Log.i(TAG, "spec.miss detected=" + (languageTag != null ? languageTag : "unknown")
+                        + " cancelled=" + speculation.isCancelled());
+            }
+        }
+        if (primary == null && clovaLanguage != null) {
+            if (clovaHealth.allowRequest()) {
+                Log.i(TAG, "route.decision provider=clova lang=" + clovaLanguage);
+                final String lang = clovaLanguage;
+                primary = startAttempt("clova", () -> callClova(audioUri, lang), null);
+            } else {
+                // 장애 중인 Clova를 기다리지 않고 바로 Google로 보냅니다.
+                Log.i(TAG, "route.skip provider=clova " + clovaHealth.describe());
+                route = routePrefix + "->clova_open->google";
+            }
+        }
+
+        if (primary != null) {
+            primaryCalls.incrementAndGet();
             try {
-                TranscriptionResult clovaResult = clova.transcribe(audioUri, clovaLanguage);
-                finalSegments = copySegments(clovaResult.segments);
-                provider = "clova";
-                route = routePrefix + "->clova";
-                finalResult = buildFinal(finalSegments, provider, route, snippetLen, languageTag, clovaLanguage, routeStart);
-                return finalResult;
+                Hedged hedged = awaitHedged(primary, audioUri, finalLanguage);
+                TranscriptionResult result = hedged.result;
+                if (hedged.winner == primary) {
+                    String r = primary.hedge != null ? primaryRoute + "(hedged)" : primaryRoute;
+                    return buildFinal(copySegments(result.segments), result.words, "clova", r,
+                            snippetLen, languageTag, clovaLanguage, routeStart);
+                }
+                return buildFinal(copySegments(result.segments), result.words, "google",
+                        primaryRoute + "_hedge->google", snippetLen, languageTag, finalLanguage, routeStart);
+            } catch (HedgeFailedException bothFailed) {
+                // 헤지로 Google도 이미 실패했으므로 다시 부르지 않습니다.
+                throw bothFailed.googleError;
+            } catch (CancellationException cancelled) {
+                throw cancelled;
             } catch (RuntimeException clovaError) {
+                // 전사 자체가 취소되어 Clova 호출이 끊긴 경우에는 Google로 다시 보내지 않습니다.
+                if (isAbandoned()) {
+                    throw (CancellationException) new CancellationException("transcription cancelled")
+                            .initCause(clovaError);
+                }
                 Log.e(TAG, "route.clova.failed fallback=google", clovaError);
-                provider = "google";
-                route = routePrefix + "->clova_fail->google";
-                finalLanguage = LangMap.toGoogleCode(languageTag);
+                route = primaryRoute + "_fail->google";
             }
         }
 
         Log.i(TAG, "route.decision provider=google lang=" + finalLanguage);
-        TranscriptionResult googleResult = google.transcribe(audioUri, finalLanguage, GoogleTranscriber.Mode.FULL);
-        finalSegments = copySegments(googleResult.segments);
-        finalResult = buildFinal(finalSegments, provider, route, snippetLen, languageTag, finalLanguage, routeStart);
-        return finalResult;
+        // Google은 마지막 경로라 브레이커가 열려 있어도 호출하고, 상태만 기록합니다.
+        TranscriptionResult googleResult = callGoogle(audioUri, finalLanguage);
+        return buildFinal(copySegments(googleResult.segments), googleResult.words, provider, route,
+                snippetLen, languageTag, finalLanguage, routeStart);
     }
+
+    /**
+     * primary가 최근 지연의 백분위(오디오 1초당 값 × 이 오디오 길이) 안에 끝나지 않으면 예산 안에서 Google로 헤지하고, 먼저 성공한 쪽을 돌려줍니다.
+     * 진 쪽은 HTTP 호출까지 취소합니다.
+     * @throws RuntimeException         헤지 없이 primary가 실패한 경우 그 원인
+     * @throws HedgeFailedException     primary와 헤지가 모두 실패한 경우
+     * @throws CancellationException    기다리는 중 인터럽트된 경우. 두 시도 모두 버립니다.
+     */
+    @NonNull
+    private Hedged awaitHedged(@NonNull Attempt primary, @NonNull Uri audioUri, @NonNull String googleLanguage) {
+        try {
+            long threshold = -1L;
+            if (hedgePercentile > 0) {
+                long perSecond = clovaHealth.latencyPerAudioSecondPercentile(hedgePercentile);
+                long audioMs = perSecond >= 0 ? audioDurationMs(audioUri) : 0L;
+                // 길이를 모르면 긴 녹음을 짧은 녹음 기준으로 헤지하게 되므로 헤지하지 않습니다.
+                if (audioMs > 0) threshold = perSecond * audioMs / 1000L;
+            }
+            if (threshold >= 0 && googleHealth.isClosed()) {
+                long wait = Math.max(0L, threshold - primary.elapsedMs());
+                try {
+                    return new Hedged(primary, primary.get(wait, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException slow) {
+                    if (reserveHedge()) {
+                        Log.i(TAG, "hedge.start afterMs=" + primary.elapsedMs() + " p" + (int) (hedgePercentile * 100)
+                                + "=" + threshold + "ms " + hedgeStats());
+                        primary.hedge = startAttempt("google", () -> callGoogle(audioUri, googleLanguage),
+                                primary.completions);
+                    }
+                }
+            }
+            if (primary.hedge == null) {
+                return new Hedged(primary, primary.get());
+            }
+
+            // 둘 중 먼저 성공한 쪽을 씁니다. 먼저 끝난 쪽이 실패면 나머지를 기다립니다.
+            Attempt hedge = primary.hedge;
+            RuntimeException primaryError = null;
+            RuntimeException hedgeError = null;
+            for (int i = 0; i < 2; i++) {
+                Attempt done = primary.completions.take();
+                try {
+                    TranscriptionResult result = done.get();
+                    Attempt loser = done == primary ? hedge : primary;
+                    loser.abandon();
+                    if (done == hedge) hedgeWins.incrementAndGet();
+                    Log.i(TAG, "hedge.done winner=" + done.provider + " " + hedgeStats());
+                    return new Hedged(done, result);
+                } catch (ExecutionException | CancellationException e) {
+                    RuntimeException err = unwrap(e);
+                    if (done == primary) primaryError = err;
+                    else hedgeError = err;
+                }
+            }
+            throw new HedgeFailedException(primaryError, hedgeError);
+        } catch (InterruptedException e) {
+            primary.abandon();
+            if (primary.hedge != null) primary.hedge.abandon();
+            Thread.currentThread().interrupt();
+            throw (CancellationException) new CancellationException("transcription interrupted").initCause(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /** 헤지 예산(1차 요청의 HEDGE_BUDGET 비율) 안이면 한 건을 예약합니다. */
+    private boolean reserveHedge() {
+        while (true) {
+            long sent = hedgesSent.get();
+            if (sent + 1 > HEDGE_BUDGET * primaryCalls.get()) {
+                Log.i(TAG, "hedge.skip reason=budget " + hedgeStats());
+                return false;
+            }
+            if (hedgesSent.compareAndSet(sent, sent + 1)) return true;
+        }
+    }
+
+    @NonNull
+    private String hedgeStats() {
+        return "hedges=" + hedgesSent.get() + "/" + primaryCalls.get() + " wins=" + hedgeWins.get();
+    }
+
+    @NonNull
+    private Attempt startAttempt(@NonNull String provider,
+                                 @NonNull Callable<TranscriptionResult> work,
+                                 @Nullable BlockingQueue<Attempt> completions) {
+        // 호출한 쪽의 범위 아래에 두어 바깥 취소가 시도까지 전달되고 진행 알림도 같은 리스너로 갑니다.
+        Attempt attempt = new Attempt(provider, new CallCanceller(CallCanceller.current(), null), work,
+                completions != null ? completions : new LinkedBlockingQueue<>());
+        speculative.execute(attempt);
+        return attempt;
+    }
+
+    /**
+     * 제공자 호출 한 번. 끝나면 completions에 자신을 넣어 헤지 대기 쪽이 먼저 끝난 시도를 알 수 있게 합니다.
+     * abandon()은 스레드 인터럽트와 함께 진행 중인 HTTP 호출도 취소합니다.
+     */
+    private static final class Attempt extends FutureTask<TranscriptionResult> {
+        final String provider;
+        final CallCanceller canceller;
+        final BlockingQueue<Attempt> completions;
+        final long startedAt = SystemClock.elapsedRealtime();
+        @Nullable Attempt hedge;
+
+        Attempt(@NonNull String provider,
+                @NonNull CallCanceller canceller,
+                @NonNull Callable<TranscriptionResult> work,
+                @NonNull BlockingQueue<Attempt> completions) {
+            super(() -> canceller.call(work));
+            this.provider = provider;
+            this.canceller = canceller;
+            this.completions = completions;
+        }
+
+        long elapsedMs() {
+            return SystemClock.elapsedRealtime() - startedAt;
+        }
+
+        /** 인터럽트를 먼저 걸어 두어야 호출 취소로 난 예외를 실패로 기록하지 않습니다. */
+        void abandon() {
+            cancel(true);
+            canceller.cancel();
+        }
+
+        @Override
+        protected void done() {
+            completions.offer(this);
+        }
+    }
+
+    /** awaitHedged 결과: 먼저 성공한 시도와 그 결과 */
+    private static final class Hedged {
+        final Attempt winner;
+        final TranscriptionResult result;
+
+        Hedged(@NonNull Attempt winner, @NonNull TranscriptionResult result) {
+            this.winner = winner;
+            this.result = result;
+        }
+    }
+
+    private static final class HedgeFailedException extends RuntimeException {
+        final RuntimeException googleError;
+
+        HedgeFailedException(@Nullable RuntimeException clovaError, @Nullable RuntimeException googleError) {
+            super("clova and hedged google both failed", clovaError);
+            this.googleError = googleError != null ? googleError : new RuntimeException("hedged google failed");
+        }
+    }
+
+    /** Clova 호출 결과를 브레이커에 기록합니다. 버려진(취소된) 호출은 기록하지 않습니다. */
+    @NonNull
+    private TranscriptionResult callClova(@NonNull Uri audioUri, @NonNull String languageCode) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            TranscriptionResult result = clova.transcribe(audioUri, languageCode);
+            clovaHealth.recordSuccess(SystemClock.elapsedRealtime() - start, audioDurationMs(audioUri));
+            return result;
+        } catch (RuntimeException e) {
+            if (isAbandoned()) {
+                clovaHealth.releaseProbe();
+            } else {
+                clovaHealth.recordFailure(SystemClock.elapsedRealtime() - start, e);
+            }
+            throw e;
+        }
+    }
+
+    @NonNull
+    private TranscriptionResult callGoogle(@NonNull Uri audioUri, @NonNull String languageCode) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            TranscriptionResult result = google.transcribe(audioUri, languageCode, GoogleTranscriber.Mode.FULL);
+            googleHealth.recordSuccess(SystemClock.elapsedRealtime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            if (!isAbandoned()) {
+                googleHealth.recordFailure(SystemClock.elapsedRealtime() - start, e);
+            }
+            throw e;
+        }
+    }
+
+    /** 목록 스캔/전사 때 저장해 둔 오디오 길이(ms). 없으면 probe하고, 그래도 모르면 0. */
+    private long audioDurationMs(@NonNull Uri audioUri) {
+        if (app == null) return 0L;
+        AudioMeta meta = AudioMetaEnricher.getOrProbe(app, audioUri);
+        return meta != null ? meta.durationMs : 0L;
+    }
+
+    /**
+     * 이 호출이 헤지에서 지거나 추측이 빗나가 버려졌는지. 인터럽트 표시만 보면 호출 취소가 먼저 도착한 경우를 놓치므로
+     * 현재 범위의 취소 여부도 봅니다.
+     */
+    private static boolean isAbandoned() {
+        CallCanceller scope = CallCanceller.current();
+        return Thread.currentThread().isInterrupted() || (scope != null && scope.isCancelled());
+    }
+
+    @NonNull
+    private static RuntimeException unwrap(@NonNull Exception e) {
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        if (cause instanceof RuntimeException) return (RuntimeException) cause;
+        return new RuntimeException(cause);
+    }
+
     @NonNull
     private static List<TranscriptSegment> copySegments(List<TranscriptSegment> segments) {
         if (segments == null || segments.isEmpty()) {
@@ -136,20 +499,22 @@ public final class RouterTranscriber implements Transcriber {
     }
 
     private TranscriptionResult buildFinal(@NonNull List<TranscriptSegment> segments,
+                                           @NonNull WordTimings words,
                                            @NonNull String provider,
                                            @NonNull String route,
                                            int snippetLen,
                                            @Nullable String detectedTag,
                                            @NonNull String finalLanguageCode,
                                            long routeStart) {
+        // 라우팅 결정과 당시 브레이커 상태를 함께 남깁니다. 예: quick->clova|clova=closed,google=closed
         TranscriptionResult.Metadata metadata = new TranscriptionResult.Metadata(
                 provider,
-                route,
+                route + "|" + clovaHealth.tag() + "," + googleHealth.tag(),
                 snippetLen,
                 detectedTag,
                 finalLanguageCode
         );
         Log.i(TAG, "final.done provider=" + provider + " totalMs=" + (SystemClock.elapsedRealtime() - routeStart));
-        return new TranscriptionResult(segments, true, metadata);
+        return new TranscriptionResult(segments, words, true, metadata);
     }
 }
\ No newline at end of file
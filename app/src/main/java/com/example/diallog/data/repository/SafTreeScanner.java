@@ -0,0 +1,264 @@
+package com.example.diallog.data.repository;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.provider.DocumentsContract;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * SafTreeScanner
+ * - SAF 트리를 DocumentsContract 자식 커서로 순회합니다. 디렉터리 한 단계당 쿼리 1회로
+ *   이름/MIME/크기/수정시각을 함께 가져옵니다 (DocumentFile은 속성마다 쿼리를 보냄).
+ * - 같은 깊이의 디렉터리(여러 루트 포함)는 pool에서 병렬로 조회합니다.
+ * - 예산을 넘기면 남은 디렉터리 큐와 방문 집합을 Checkpoint로 돌려주고, resume()으로 이어서 순회합니다.
+ */
+final class SafTreeScanner {
+    private static final String TAG = "SafScan";
+
+    private static final String[] CHILD_PROJECTION = {
+            DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+            DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+            DocumentsContract.Document.COLUMN_MIME_TYPE,
+            DocumentsContract.Document.COLUMN_SIZE,
+            DocumentsContract.Document.COLUMN_LAST_MODIFIED
+    };
+
+    interface AudioMatcher {
+        boolean isAudio(@NonNull String name, @Nullable String mime);
+    }
+
+    static final class Result {
+        @NonNull final List<CallRecord> records;
+        final int visited;
+        /** 순회가 끝나지 않았으면 이어서 돌 수 있는 지점. 완료되었으면 null. */
+        @Nullable final Checkpoint checkpoint;
+
+        Result(@NonNull List<CallRecord> records, int visited, @Nullable Checkpoint checkpoint) {
+            this.records = records;
+            this.visited = visited;
+            this.checkpoint = checkpoint;
+        }
+
+        boolean truncated() { return checkpoint != null; }
+    }
+
+    /** 아직 조회하지 않은 디렉터리와 이미 큐에 넣은 디렉터리 집합. 한 번에 한 스레드만 사용합니다. */
+    static final class Checkpoint {
+        final List<DirNode> pending;
+        final Set<String> visitedDirs;
+
+        Checkpoint(@NonNull List<DirNode> pending, @NonNull Set<String> visitedDirs) {
+            this.pending = pending;
+            this.visitedDirs = visitedDirs;
+        }
+    }
+
+    private static final class DirNode {
+        final Uri treeUri;
+        final String documentId;
+        final int depth;
+
+        DirNode(Uri treeUri, String documentId, int depth) {
+            this.treeUri = treeUri;
+            this.documentId = documentId;
+            this.depth = depth;
+        }
+
+        String key() { return treeUri + "#" + documentId; }
+    }
+
+    private static final class Listing {
+        final List<CallRecord> files = new ArrayList<>();
+        final List<DirNode> dirs = new ArrayList<>();
+        int visited;
+    }
+
+    private final ContentResolver resolver;
+    private final ExecutorService pool;
+    private final AudioMatcher matcher;
+    private final int maxDepth;
+    private final int maxFiles;
+
+    SafTreeScanner(@NonNull ContentResolver resolver,
+                   @NonNull ExecutorService pool,
+                   @NonNull AudioMatcher matcher,
+                   int maxDepth,
+                   int maxFiles) {
+        this.resolver = resolver;
+        this.pool = pool;
+        this.matcher = matcher;
+        this.maxDepth = maxDepth;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * 너비 우선으로 순회합니다. 예산(budgetMs)이나 maxFiles에 닿으면 그 시점까지의 결과와
+     * Checkpoint를 돌려줍니다. maxFiles는 한 번의 호출(slice)당 상한입니다.
+     * cancelled가 true가 되면 다음 단계로 넘어가지 않고 Checkpoint 없이 돌아옵니다.
+     */
+    @NonNull
+    Result scan(@NonNull List<Uri> treeUris, long startTicks, long budgetMs, @NonNull BooleanSupplier cancelled) {
+        final Set<String> visitedDirs = new HashSet<>();
+        final List<DirNode> roots = new ArrayList<>();
+        for (Uri tree : treeUris) {
+            String rootId;
+            try {
+                rootId = DocumentsContract.getTreeDocumentId(tree);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "scan: invalid tree uri=" + tree);
+                continue;
+            }
+            DirNode root = new DirNode(tree, rootId, 0);
+            if (visitedDirs.add(root.key())) roots.add(root);
+        }
+        return walk(roots, visitedDirs, startTicks, budgetMs, cancelled);
+    }
+
+    /** 이전 slice가 남긴 지점부터 이어서 순회합니다. */
+    @NonNull
+    Result resume(@NonNull Checkpoint checkpoint, long startTicks, long budgetMs,
+                  @NonNull BooleanSupplier cancelled) {
+        return walk(checkpoint.pending, checkpoint.visitedDirs, startTicks, budgetMs, cancelled);
+    }
+
+    @NonNull
+    private Result walk(@NonNull List<DirNode> start,
+                        @NonNull Set<String> visitedDirs,
+                        long startTicks,
+                        long budgetMs,
+                        @NonNull BooleanSupplier cancelled) {
+        final List<CallRecord> out = new ArrayList<>();
+        List<DirNode> level = new ArrayList<>(start);
+        // 이번 slice에서 끝내지 못한 디렉터리 (취소된 조회 포함)
+        final List<DirNode> deferred = new ArrayList<>();
+
+        int visited = 0;
+        while (!level.isEmpty()) {
+            if (cancelled.getAsBoolean()) {
+                Log.i(TAG, "walk: cancelled collected=" + out.size() + " visited=" + visited);
+                return new Result(out, visited, null);
+            }
+            long remaining = budgetMs - (SystemClock.uptimeMillis() - startTicks);
+            if (remaining <= 0 || out.size() >= maxFiles || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+
+            List<Callable<Listing>> tasks = new ArrayList<>(level.size());
+            for (DirNode node : level) {
+                tasks.add(() -> cancelled.getAsBoolean() ? new Listing() : list(node));
+            }
+
+            List<Future<Listing>> futures;
+            try {
+                futures = pool.invokeAll(tasks, remaining, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            List<DirNode> next = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Listing> f = futures.get(i);
+                if (f.isCancelled()) {
+                    deferred.add(level.get(i));
+                    continue;
+                }
+                Listing listing;
+                try {
+                    listing = f.get();
+                } catch (ExecutionException e) {
+                    Log.w(TAG, "walk: listing failed", e.getCause());
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    deferred.add(level.get(i));
+                    continue;
+                }
+                visited += listing.visited;
+                // 이미 읽은 목록은 버리지 않습니다. maxFiles는 다음 단계로 넘어갈지만 결정합니다.
+                out.addAll(listing.files);
+                for (DirNode dir : listing.dirs) {
+                    if (dir.depth <= maxDepth && visitedDirs.add(dir.key())) next.add(dir);
+                }
+            }
+            level = next;
+        }
+
+        Checkpoint checkpoint = null;
+        if (!level.isEmpty() || !deferred.isEmpty()) {
+            List<DirNode> pending = new ArrayList<>(deferred.size() + level.size());
+            pending.addAll(deferred);
+            pending.addAll(level);
+            checkpoint = new Checkpoint(pending, visitedDirs);
+            Log.i(TAG, "walk: paused collected=" + out.size() + " visited=" + visited
+                    + " pendingDirs=" + pending.size()
+                    + " elapsed=" + (SystemClock.uptimeMillis() - startTicks) + "ms");
+        }
+        return new Result(out, visited, checkpoint);
+    }
+
+    /** 디렉터리 하나의 자식을 한 번의 쿼리로 읽습니다. */
+    @NonNull
+    private Listing list(@NonNull DirNode node) {
+        final Listing listing = new Listing();
+        final String folder = CallIndex.normalizeFolder(node.documentId);
+        final Uri children = DocumentsContract.buildChildDocumentsUriUsingTree(node.treeUri, node.documentId);
+        try (Cursor c = resolver.query(children, CHILD_PROJECTION, null, null, null)) {
+            if (c == null) return listing;
+            final int iId = c.getColumnIndexOrThrow(DocumentsContract.Document.COLUMN_DOCUMENT_ID);
+            final int iName = c.getColumnIndexOrThrow(DocumentsContract.Document.COLUMN_DISPLAY_NAME);
+            final int iMime = c.getColumnIndexOrThrow(DocumentsContract.Document.COLUMN_MIME_TYPE);
+            final int iSize = c.getColumnIndexOrThrow(DocumentsContract.Document.COLUMN_SIZE);
+            final int iMod = c.getColumnIndexOrThrow(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+
+            while (c.moveToNext()) {
+                String docId = c.getString(iId);
+                String name = c.getString(iName);
+                if (docId == null || name == null) continue;
+                listing.visited++;
+
+                String mime = c.getString(iMime);
+                if (DocumentsContract.Document.MIME_TYPE_DIR.equals(mime)) {
+                    if (!shouldSkipDir(name)) {
+                        listing.dirs.add(new DirNode(node.treeUri, docId, node.depth + 1));
+                    }
+                    continue;
+                }
+                if (!matcher.isAudio(name, mime)) continue;
+                long size = c.isNull(iSize) ? 0L : c.getLong(iSize);
+                if (!c.isNull(iSize) && size <= 0) continue;
+
+                long startedAt = c.isNull(iMod) ? 0L : Math.max(0L, c.getLong(iMod));
+                Uri uri = DocumentsContract.buildDocumentUriUsingTree(node.treeUri, docId);
+                listing.files.add(new CallRecord(uri, name, 0L, startedAt, CallRecord.Source.SAF, folder, size));
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "list: failed dir=" + node.documentId, e);
+        }
+        return listing;
+    }
+
+    static boolean shouldSkipDir(@NonNull String name) {
+        String lower = name.toLowerCase();
+        return name.startsWith(".") || "android".equalsIgnoreCase(name)
+                || lower.contains("cache") || lower.contains("backup");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.CallRecord;
+
+import java.util.List;
+
+/**
+ * 스캔 진행 중 결과를 단계적으로 받기 위한 리스너. 스캔 스레드에서 호출됩니다.
+ */
+public interface ScanListener {
+    /** 한 출처(MediaStore, SAF)에서 수집된 결과. 최신순으로 정렬되어 있습니다. */
+    void onBatch(@NonNull List<CallRecord> sortedBatch);
+
+    default void onProgress(@NonNull Progress progress) {}
+
+    final class Progress {
+        /** 이번 진행을 만든 출처. 전체 스캔 완료 이벤트에서는 null. */
+        @Nullable public final CallRecord.Source source;
+        public final int filesVisited;
+        public final int rowsMatched;
+        public final long elapsedMs;
+        public final boolean done;
+
+        public Progress(@Nullable CallRecord.Source source,
+                        int filesVisited,
+                        int rowsMatched,
+                        long elapsedMs,
+                        boolean done) {
+            this.source = source;
+            this.filesVisited = filesVisited;
+            this.rowsMatched = rowsMatched;
+            this.elapsedMs = elapsedMs;
+            this.done = done;
+        }
+
+        @NonNull @Override
+        public String toString() {
+            return "Progress{" +
+                    "source=" + source +
+                    ", visited=" + filesVisited +
+                    ", matched=" + rowsMatched +
+                    ", elapsedMs=" + elapsedMs +
+                    ", done=" + done +
+                    '}';
+        }
+    }
+}
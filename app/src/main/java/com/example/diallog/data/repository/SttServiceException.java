@@ -0,0 +1,43 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * STT 서버가 요청을 받아서 거절한 경우.
+ * 전송 자체가 실패한 IOException과 구분해, 다시 보내 봐야 소용없는 오류(잘못된 요청, 권한 없음)를 가려냅니다.
+ */
+final class SttServiceException extends IOException {
+    /** HTTP 상태 코드. 작업 결과의 오류처럼 HTTP가 아닌 경우 0. */
+    final int httpCode;
+    final boolean retryable;
+
+    private SttServiceException(@NonNull String message, int httpCode, boolean retryable) {
+        super(message);
+        this.httpCode = httpCode;
+        this.retryable = retryable;
+    }
+
+    /** 5xx, 429, 408만 일시적인 서버 상태로 보고 다시 시도합니다. */
+    @NonNull
+    static SttServiceException forHttp(int code, @NonNull String message) {
+        return new SttServiceException(message, code, code >= 500 || code == 429 || code == 408);
+    }
+
+    /**
+     * google.rpc.Code 기준. DEADLINE_EXCEEDED(4), RESOURCE_EXHAUSTED(8), ABORTED(10),
+     * INTERNAL(13), UNAVAILABLE(14)만 다시 시도합니다.
+     */
+    @NonNull
+    static SttServiceException forRpc(int rpcCode, @NonNull String message) {
+        boolean retryable = rpcCode == 4 || rpcCode == 8 || rpcCode == 10 || rpcCode == 13 || rpcCode == 14;
+        return new SttServiceException(message, 0, retryable);
+    }
+
+    /** 응답 형식이 기대와 달라 다시 보내도 같을 경우. */
+    @NonNull
+    static SttServiceException permanent(@NonNull String message) {
+        return new SttServiceException(message, 0, false);
+    }
+}
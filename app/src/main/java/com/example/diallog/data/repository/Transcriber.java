@@ -3,6 +3,7 @@ package com.example.diallog.data.repository;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.List;
 import com.example.diallog.data.model.TranscriptSegment;
@@ -16,4 +17,13 @@ public interface Transcriber {
     default @NonNull TranscriptionResult transcribe(@NonNull Uri audioUri, @NonNull String languageCode) {
         return transcribe(audioUri);
     }
+
+    /**
+     * 백그라운드에서 전사하고 단계별 진행을 listener로 알립니다.
+     * 돌려받은 작업을 cancel()하면 진행 중인 HTTP 호출까지 취소됩니다.
+     */
+    default @NonNull TranscriptionTask transcribeAsync(@NonNull Uri audioUri,
+                                                       @Nullable TranscriptionListener listener) {
+        return TranscriptionTask.start(this, audioUri, null, listener);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.diallog.data.repository;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.diallog.R;
+import com.example.diallog.auth.GoogleOauth;
+import com.example.diallog.data.network.ApiClient;
+import com.example.diallog.data.repository.cache.CachedTranscriber;
+import com.example.diallog.data.repository.cache.TranscriptCache;
+import com.example.diallog.utils.AudioSnipper;
+import com.example.diallog.utils.MlKitLanguageDetector;
+
+/**
+ * 실제 전사 체인 구성: Clova(조각 병렬) / Google + 언어 라우팅 + 결과 캐시.
+ * 화면이 아닌 작업 큐에서도 같은 체인을 쓰기 위해 한곳에 모았습니다.
+ */
+public final class TranscriberPipeline {
+    private TranscriberPipeline() {
+    }
+
+    @NonNull
+    public static Transcriber build(@NonNull Context context, @NonNull TranscriptCache cache) {
+        Context app = context.getApplicationContext();
+        AudioSnipper snipper = new AudioSnipper(app, R.raw.sample1, "sample1_snip.mp3");
+        // 긴 통화는 무음 구간에서 잘라 조각별로 병렬 전사
+        Transcriber clova = new ChunkedTranscriber(app, new ClovaSpeechTranscriber(
+                app,
+                ApiClient.clova(),
+                "ko-KR"
+        ), snipper, 3);
+        GoogleOauth oauth;
+        try {
+            oauth = new GoogleOauth(app, R.raw.service_account);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        GoogleTranscriber google = new GoogleTranscriber(
+                app,
+                ApiClient.google(),
+                oauth,
+                "en-US"
+        );
+
+        LanguageDetector det = new MlKitLanguageDetector();
+        // 대부분 한국어 통화라 Clova(ko-KR)를 감지와 동시에 미리 시작
+        Transcriber routed = new RouterTranscriber(app, clova, google, det, snipper, "ko-KR",
+                LanguagePriorStore.get(app));
+        return new CachedTranscriber(routed, cache);
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.diallog.data.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.repository.cache.FileTranscriptCache;
+import com.example.diallog.data.repository.cache.TranscriptCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TranscriptionJobQueue
+ * - 전사 작업을 디스크에 보관하고 프로세스 단위 작업자 풀에서 실행합니다. 화면을 떠나도 작업은 계속되고,
+ *   프로세스가 죽으면 다음 실행 때 남은 작업을 이어서 합니다.
+ * - 우선순위가 높은 작업부터 실행하며, 이미 대기 중인 통화를 사용자가 열면 우선순위만 올립니다.
+ * - 네트워크 오류(IOException 원인)는 지수 백오프로 재시도하고, 그 외 오류는 바로 실패 처리합니다.
+ * - 실행 중인 작업은 cancel()로 HTTP 호출까지 끊을 수 있고, 진행 단계는 submit 때 준 리스너로 전달합니다.
+ * - 전사 체인 구성, 저장소 읽기/쓰기, 캐시 확인은 모두 제어 스레드(control)나 작업자에서 합니다.
+ *   get()/submit()/cancel()은 메인 스레드에서 불러도 I/O를 하지 않습니다.
+ * - 결과는 CachedTranscriber를 거쳐 전사 캐시에 저장되므로 통화를 열 때 대부분 캐시에서 바로 나옵니다.
+ *
+ * 포맷: MAGIC, VERSION, count, [uri, priority, attempts, notBeforeEpochMs, enqueuedAtEpochMs]*
+ */
+public final class TranscriptionJobQueue {
+    private static final String TAG = "TranscriptionJobs";
+    private static final String FILE_NAME = "transcription_jobs.bin";
+    private static final int MAGIC = 0x444C4A51; // "DLJQ"
+    private static final int VERSION = 1;
+
+    /** 사용자가 보고 있는 통화 */
+    public static final int PRIORITY_VISIBLE = 100;
+
+    private static final int WORKERS = 2;
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long BACKOFF_BASE_MS = 5_000L;
+    private static final long BACKOFF_MAX_MS = 10 * 60_000L;
+
+    @Nullable private static TranscriptionJobQueue shared;
+
+    /** 처음 호출될 때 제어 스레드에서 전사 체인을 만들고 저장된 작업을 읽어 이어서 실행합니다. */
+    @NonNull
+    public static synchronized TranscriptionJobQueue get(@NonNull Context context) {
+        if (shared == null) {
+            shared = new TranscriptionJobQueue(context.getApplicationContext());
+        }
+        return shared;
+    }
+
+    private static final class Job {
+        final String uri;
+        int priority;
+        int attempts;
+        long notBefore;        // epoch ms, 재부팅 후에도 의미가 있도록 벽시계 기준
+        final long enqueuedAt;
+        boolean running;
+        final List<CompletableFuture<TranscriptionResult>> waiters = new ArrayList<>();
+        final List<TranscriptionListener> listeners = new CopyOnWriteArrayList<>();
+        @Nullable TranscriptionTask task;   // 실행 중일 때만, 큐(this)로 보호
+
+        Job(String uri, int priority, int attempts, long notBefore, long enqueuedAt) {
+            this.uri = uri;
+            this.priority = priority;
+            this.attempts = attempts;
+            this.notBefore = notBefore;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final Context app;
+    private Transcriber transcriber;                                // init 후 this로 보호
+    private TranscriptCache cache;                                  // init 후 this로 보호
+    @Nullable private RuntimeException initError;                   // this로 보호
+    private final AtomicFile file;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();   // this로 보호
+    private int running;                                            // this로 보호
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+    /** 초기화, 제출/취소 처리, 백오프 깨우기를 순서대로 실행하는 제어 스레드. 전사는 하지 않습니다. */
+    private final ScheduledExecutorService control = Executors.newSingleThreadScheduledExecutor();
+
+    private TranscriptionJobQueue(@NonNull Context app) {
+        this.app = app;
+        this.file = new AtomicFile(new File(app.getFilesDir(), FILE_NAME));
+        control.execute(this::init);
+    }
+
+    /** 제어 스레드에서 한 번. 이후 제출은 모두 이 뒤에 실행됩니다. */
+    private void init() {
+        TranscriptCache c = null;
+        Transcriber t = null;
+        RuntimeException error = null;
+        try {
+            c = new FileTranscriptCache(app, 200);
+            t = TranscriberPipeline.build(app, c);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "init: pipeline unavailable", e);
+            error = e;
+        }
+        synchronized (this) {
+            cache = c;
+            transcriber = t;
+            initError = error;
+            if (error != null) return;
+            load();
+            if (!jobs.isEmpty()) Log.i(TAG, "resume pending=" + jobs.size());
+            dispatchLocked();
+        }
+    }
+
+    @NonNull
+    public CompletableFuture<TranscriptionResult> submit(@NonNull Uri uri, int priority) {
+        return submit(uri, priority, null);
+    }
+
+    /**
+     * 작업을 넣거나(이미 있으면 우선순위를 올리고) 완료 시 결과를 받을 future를 돌려줍니다.
+     * future를 취소해도 작업 자체는 계속됩니다. 작업을 멈추려면 cancel(Uri)을 쓰세요.
+     * @param listener 실행 중 진행 단계를 받습니다. 작업자 스레드에서 호출됩니다.
+     */
+    @NonNull
+    public CompletableFuture<TranscriptionResult> submit(@NonNull Uri uri, int priority,
+                                                         @Nullable TranscriptionListener listener) {
+        CompletableFuture<TranscriptionResult> result = new CompletableFuture<>();
+        control.execute(() -> submitOnControl(uri, priority, listener, result));
+        return result;
+    }
+
+    private void submitOnControl(@NonNull Uri uri, int priority, @Nullable TranscriptionListener listener,
+                                 @NonNull CompletableFuture<TranscriptionResult> result) {
+        TranscriptCache c;
+        synchronized (this) {
+            if (initError != null) {
+                result.completeExceptionally(initError);
+                return;
+            }
+            c = jobs.containsKey(uri.toString()) ? null : cache;
+        }
+        if (c != null) {
+            // 캐시에 있으면 작업자 자리를 기다리지 않고 바로 읽습니다. 그 사이 지워졌으면 작업으로 넣습니다.
+            List<TranscriptSegment> hit = c.get(uri);
+            if (!hit.isEmpty()) {
+                result.complete(TranscriptionResult.finalResult(hit, c.getWords(uri), null));
+                return;
+            }
+        }
+        synchronized (this) {
+            Job job = jobs.get(uri.toString());
+            if (job == null) {
+                job = new Job(uri.toString(), priority, 0, 0L, System.currentTimeMillis());
+                jobs.put(job.uri, job);
+                Log.i(TAG, "enqueue uri=" + uri + " priority=" + priority + " pending=" + jobs.size());
+            } else if (priority > job.priority) {
+                job.priority = priority;
+                // 사용자가 기다리는 작업은 백오프 대기를 끝내고 바로 다시 시도합니다.
+                if (priority >= PRIORITY_VISIBLE) job.notBefore = 0L;
+                Log.i(TAG, "reprioritize uri=" + uri + " priority=" + priority);
+            }
+            job.waiters.add(result);
+            if (listener != null) job.listeners.add(listener);
+            save();
+            dispatchLocked();
+        }
+    }
+
+    /**
+     * 작업을 큐에서 빼고, 실행 중이면 진행 중인 HTTP 호출까지 취소합니다.
+     * 기다리던 future들은 CancellationException으로 끝납니다.
+     */
+    public void cancel(@NonNull Uri uri) {
+        control.execute(() -> {
+            Job job;
+            synchronized (this) {
+                job = jobs.remove(uri.toString());
+                if (job == null) return;
+                if (job.task != null) job.task.cancel();
+                save();
+            }
+            Log.i(TAG, "cancel uri=" + uri + " running=" + job.running);
+            for (CompletableFuture<TranscriptionResult> f : job.waiters) f.cancel(false);
+        });
+    }
+
+    /**
+     * submit(uri, priority, listener)로 붙인 listener를 뗍니다. 작업은 계속됩니다.
+     * 화면이 사라질 때 불러 작업이 listener(와 그 화면)를 붙잡지 않도록 합니다.
+     */
+    public void unsubscribe(@NonNull Uri uri, @NonNull TranscriptionListener listener) {
+        control.execute(() -> {
+            synchronized (this) {
+                Job job = jobs.get(uri.toString());
+                if (job != null) job.listeners.remove(listener);
+            }
+        });
+    }
+
+    public synchronized int pendingCount() {
+        return jobs.size();
+    }
+
+    /** 실행 가능한 작업 중 우선순위가 높고 먼저 들어온 것부터 작업자에 넘깁니다. */
+    private void dispatchLocked() {
+        long now = System.currentTimeMillis();
+        long nextWake = Long.MAX_VALUE;
+        while (running < WORKERS) {
+            Job best = null;
+            for (Job j : jobs.values()) {
+                if (j.running) continue;
+                if (j.notBefore > now) {
+                    nextWake = Math.min(nextWake, j.notBefore);
+                    continue;
+                }
+                if (best == null || j.priority > best.priority
+                        || (j.priority == best.priority && j.enqueuedAt < best.enqueuedAt)) {
+                    best = j;
+                }
+            }
+            if (best == null) break;
+            best.running = true;
+            running++;
+            final Job job = best;
+            workers.execute(() -> run(job));
+        }
+        if (nextWake != Long.MAX_VALUE) {
+            control.schedule(() -> {
+                synchronized (this) {
+                    dispatchLocked();
+                }
+            }, Math.max(0L, nextWake - now), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run(@NonNull Job job) {
+        Uri uri = Uri.parse(job.uri);
+        TranscriptionResult result = null;
+        Exception failure = null;
+        TranscriptionTask task;
+        synchronized (this) {
+            Log.i(TAG, "run uri=" + uri + " attempt=" + (job.attempts + 1) + " priority=" + job.priority);
+            task = transcriber.transcribeAsync(uri, (stage, d, total) -> {
+                for (TranscriptionListener l : job.listeners) l.onStage(stage, d, total);
+            });
+            job.task = task;
+            // 시작 전에 cancel()된 경우
+            if (jobs.get(job.uri) != job) task.cancel();
+        }
+        try {
+            result = task.result().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            failure = cause instanceof Exception ? (Exception) cause : e;
+        } catch (CancellationException | InterruptedException e) {
+            failure = e;
+        }
+
+        List<CompletableFuture<TranscriptionResult>> done = null;
+        synchronized (this) {
+            job.running = false;
+            job.task = null;
+            running--;
+            if (jobs.get(job.uri) != job) {
+                // cancel()이 이미 큐에서 빼고 대기자에게 알렸습니다.
+                Log.i(TAG, "cancelled uri=" + uri);
+            } else if (failure == null) {
+                jobs.remove(job.uri);
+                done = new ArrayList<>(job.waiters);
+            } else if (isRetryable(failure) && job.attempts + 1 < MAX_ATTEMPTS) {
+                job.attempts++;
+                long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << (job.attempts - 1));
+                backoff += ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+                job.notBefore = System.currentTimeMillis() + backoff;
+                Log.w(TAG, "retry uri=" + uri + " attempts=" + job.attempts + " backoffMs=" + backoff, failure);
+            } else {
+                jobs.remove(job.uri);
+                done = new ArrayList<>(job.waiters);
+                Log.e(TAG, "failed uri=" + uri + " attempts=" + (job.attempts + 1), failure);
+            }
+            save();
+            dispatchLocked();
+        }
+        if (done == null) return;
+        for (CompletableFuture<TranscriptionResult> f : done) {
+            if (failure == null) f.complete(result);
+            else f.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * 서버가 거절한 경우(SttServiceException)는 5xx/429 같은 일시적 상태일 때만 다시 시도합니다.
+     * 그 밖의 IOException은 전송 실패로 보고 다시 시도하되, 파일이 없는 경우는 제외합니다.
+     */
+    static boolean isRetryable(@NonNull Throwable t) {
+        boolean transport = false;
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof SttServiceException) return ((SttServiceException) c).retryable;
+            if (c instanceof FileNotFoundException) return false;
+            if (c instanceof IOException) transport = true;
+        }
+        return transport;
+    }
+
+    private void save() {
+        synchronized (file) {
+            FileOutputStream fos = null;
+            try {
+                fos = file.startWrite();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(jobs.size());
+                for (Job j : jobs.values()) {
+                    out.writeUTF(j.uri);
+                    out.writeInt(j.priority);
+                    out.writeInt(j.attempts);
+                    out.writeLong(j.notBefore);
+                    out.writeLong(j.enqueuedAt);
+                }
+                out.flush();
+                file.finishWrite(fos);
+            } catch (IOException e) {
+                Log.w(TAG, "save: failed", e);
+                if (fos != null) file.failWrite(fos);
+            }
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.w(TAG, "load: unsupported format");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Job j = new Job(in.readUTF(), in.readInt(), in.readInt(), in.readLong(), in.readLong());
+                jobs.put(j.uri, j);
+            }
+        } catch (FileNotFoundException e) {
+            // 아직 저장된 적 없음
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "load: corrupted store, ignoring", e);
+        }
+    }
+}
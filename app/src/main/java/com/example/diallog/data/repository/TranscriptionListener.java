@@ -0,0 +1,28 @@
+package com.example.diallog.data.repository;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 전사 진행 단계를 받는 리스너. 전사 작업 스레드(들)에서 호출됩니다.
+ */
+public interface TranscriptionListener {
+    enum Stage {
+        /** 입력 파일 확보(콘텐츠 복사 포함) */
+        RESOLVE,
+        /** 언어 감지용 앞부분 디코딩 */
+        SNIP,
+        /** 앞부분 quick 인식 */
+        QUICK,
+        /** 언어 감지 */
+        DETECT,
+        /** 업로드. done/total은 바이트 */
+        UPLOAD,
+        /** 서버 작업 완료 대기. done/total은 폴링 횟수/상한 */
+        POLL,
+        /** 응답을 세그먼트로 변환 */
+        MAP
+    }
+
+    /** done/total을 모르면 0 */
+    void onStage(@NonNull Stage stage, long done, long total);
+}
@@ -0,0 +1,67 @@
+package com.example.diallog.data.repository;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.diallog.data.model.TranscriptionResult;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 비동기로 실행 중인 전사 한 건.
+ * cancel()은 작업 스레드를 인터럽트하고 진행 중인 OkHttp 호출을 Call.cancel()로 끊습니다.
+ * 전사기들은 finally에서 임시 복사본을 지우므로 취소 즉시 정리됩니다.
+ */
+public final class TranscriptionTask {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private final CompletableFuture<TranscriptionResult> result = new CompletableFuture<>();
+    private final CallCanceller scope;
+    @Nullable private volatile Future<?> work;
+
+    private TranscriptionTask(@Nullable TranscriptionListener listener) {
+        this.scope = new CallCanceller(null, listener);
+    }
+
+    @NonNull
+    static TranscriptionTask start(@NonNull Transcriber transcriber,
+                                   @NonNull Uri audioUri,
+                                   @Nullable String languageCode,
+                                   @Nullable TranscriptionListener listener) {
+        TranscriptionTask task = new TranscriptionTask(listener);
+        task.work = EXECUTOR.submit(() -> {
+            try {
+                TranscriptionResult r = task.scope.call(() -> languageCode != null
+                        ? transcriber.transcribe(audioUri, languageCode)
+                        : transcriber.transcribe(audioUri));
+                task.result.complete(r);
+            } catch (Throwable t) {
+                task.result.completeExceptionally(task.scope.isCancelled() ? new CancellationException() : t);
+            }
+        });
+        return task;
+    }
+
+    /** 완료/실패/취소를 받을 future. 이 future를 취소해도 작업은 멈추지 않으니 cancel()을 쓰세요. */
+    @NonNull
+    public CompletableFuture<TranscriptionResult> result() {
+        return result;
+    }
+
+    public void cancel() {
+        scope.cancel();
+        Future<?> w = work;
+        if (w != null) w.cancel(true);
+        result.cancel(false);
+    }
+
+    public boolean isCancelled() {
+        return scope.isCancelled();
+    }
+}
@@ -1,19 +1,50 @@
 package com.example.diallog.data.repository.cache;
 
 import android.net.Uri;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.example.diallog.data.model.TranscriptSegment;
 import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.repository.CallCanceller;
 import com.example.diallog.data.repository.Transcriber;
+import com.example.diallog.data.repository.TranscriptionListener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * 캐시를 먼저 보고, 없으면 delegate로 전사해 저장합니다.
+ * 같은 녹음(캐시 키)을 동시에 요청하면 진행 중인 한 번의 전사에 합류합니다(single-flight).
+ * 기다리던 호출이 모두 중단(인터럽트)되었을 때만 공유 전사를 취소합니다.
+ * 공유 전사는 자체 범위(CallCanceller)에서 돌고, 진행 단계는 합류한 모든 대기자의 리스너로 전달합니다.
+ */
 public final class CachedTranscriber implements Transcriber {
+    private static final String TAG = "CachedTranscriber";
+
+    private static final class Flight {
+        final CompletableFuture<TranscriptionResult> result = new CompletableFuture<>();
+        final List<TranscriptionListener> listeners = new CopyOnWriteArrayList<>();
+        final CallCanceller scope = new CallCanceller(null, (stage, done, total) -> {
+            for (TranscriptionListener l : listeners) l.onStage(stage, done, total);
+        });
+        Future<?> task;     // inFlight로 보호
+        int waiters;        // inFlight로 보호
+    }
+
     private final Transcriber delegate;
     private final TranscriptCache cache;
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    private final ExecutorService runner = Executors.newCachedThreadPool();
 
     public CachedTranscriber(@NonNull Transcriber delegate, @NonNull TranscriptCache cache) {
         this.delegate = delegate;
@@ -24,12 +55,68 @@ public final class CachedTranscriber implements Transcriber {
     public @NonNull TranscriptionResult transcribe(@NonNull Uri audioUri) {
         List<TranscriptSegment> hit = cache.get(audioUri);
         if (!hit.isEmpty()) {
-            return TranscriptionResult.finalResult(hit, null);
+            return TranscriptionResult.finalResult(hit, cache.getWords(audioUri), null);
+        }
+
+        String key = cache.keyOf(audioUri);
+        CallCanceller caller = CallCanceller.current();
+        TranscriptionListener listener = caller != null ? caller.listener() : null;
+        Flight flight;
+        synchronized (inFlight) {
+            flight = inFlight.get(key);
+            if (flight == null) {
+                Flight created = new Flight();
+                created.task = runner.submit(() -> run(key, audioUri, created));
+                inFlight.put(key, created);
+                flight = created;
+            } else {
+                Log.i(TAG, "singleflight.join uri=" + audioUri + " waiters=" + (flight.waiters + 1));
+            }
+            flight.waiters++;
+            if (listener != null) flight.listeners.add(listener);
+        }
+
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Transcription interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        } finally {
+            if (listener != null) flight.listeners.remove(listener);
+            release(key, flight);
+        }
+    }
+
+    private void run(@NonNull String key, @NonNull Uri audioUri, @NonNull Flight flight) {
+        try {
+            TranscriptionResult fresh = flight.scope.call(() -> delegate.transcribe(audioUri));
+            if (fresh != null && fresh.isFinal && fresh.segments != null && !fresh.segments.isEmpty()) {
+                cache.put(audioUri, new ArrayList<>(fresh.segments), fresh.words);
+            }
+            flight.result.complete(fresh);
+        } catch (Throwable t) {
+            flight.result.completeExceptionally(t);
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(key, flight);
+            }
         }
-        TranscriptionResult fresh = delegate.transcribe(audioUri);
-        if (fresh != null && fresh.isFinal && fresh.segments != null && !fresh.segments.isEmpty()) {
-            cache.put(audioUri, new ArrayList<>(fresh.segments));
+    }
+
+    /** 마지막 대기자가 결과를 받기 전에 떠나면 공유 전사를 취소합니다. */
+    private void release(@NonNull String key, @NonNull Flight flight) {
+        synchronized (inFlight) {
+            flight.waiters--;
+            if (flight.waiters > 0 || flight.result.isDone()) return;
+            inFlight.remove(key, flight);
+            flight.scope.cancel();
+            flight.task.cancel(true);
         }
-        return fresh;
+        flight.result.cancel(false);
+        Log.i(TAG, "singleflight.cancel key=" + key);
     }
-}
\ No newline at end of file
+}
@@ -4,19 +4,28 @@ package com.example.diallog.data.repository.cache;
 import android.content.Context;
 import android.net.Uri;
 import android.provider.MediaStore;
+import android.util.AtomicFile;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collections;
@@ -24,7 +33,15 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 녹음마다 구간 JSON(<key>.json)과, 있으면 단어 시각 이진 파일(<key>.words)을 둡니다.
+ * 단어 시각은 단어가 수만 개라 JSON 객체로 두면 크고 느리므로 WordTimingsCodec 포맷으로 따로 저장합니다.
+ * LRU 기준과 항목 수는 .json 파일로 셉니다.
+ */
 public final class FileTranscriptCache implements TranscriptCache {
+    private static final String SEGMENTS_EXT = ".json";
+    private static final String WORDS_EXT = ".words";
+
     private static final String TAG = "STTCache";
     private final AtomicLong hits = new AtomicLong();
     private final AtomicLong misses = new AtomicLong();
@@ -64,15 +81,55 @@ public final class FileTranscriptCache implements TranscriptCache {
     }
 
     @Override public void put(@NonNull Uri uri, @NonNull List<TranscriptSegment> segs) {
-        File f = fileFor(uri);
+        put(uri, segs, WordTimings.EMPTY);
+    }
+
+    @Override public void put(@NonNull Uri uri, @NonNull List<TranscriptSegment> segs, @NonNull WordTimings words) {
+        String key = keyOf(uri);
+        File f = new File(dir, key + SEGMENTS_EXT);
         try (BufferedWriter bw = new BufferedWriter(new FileWriter(f))) {
             bw.write(gson.toJson(segs, listType));
         } catch (Exception ignore) {}
+        // 새 구간과 맞지 않는 예전 단어 시각이 남지 않도록 비어 있으면 지웁니다.
+        AtomicFile wordsFile = new AtomicFile(new File(dir, key + WORDS_EXT));
+        if (words.isEmpty()) {
+            wordsFile.delete();
+        } else {
+            writeWords(wordsFile, words);
+        }
         puts.incrementAndGet();
-        Log.i(TAG,"put "+fileFor(uri).getName()+" size="+fileFor(uri).length());
+        Log.i(TAG,"put "+f.getName()+" size="+f.length()+" words="+words.size()
+                +" wordsBytes="+wordsFile.getBaseFile().length());
         evictIfNeeded();
     }
 
+    @NonNull @Override public WordTimings getWords(@NonNull Uri uri) {
+        AtomicFile wordsFile = new AtomicFile(new File(dir, keyOf(uri) + WORDS_EXT));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(wordsFile.openRead()))) {
+            // openRead가 백업 파일을 복원한 뒤이므로 기본 파일 크기가 곧 읽는 크기입니다.
+            return WordTimingsCodec.read(in, wordsFile.getBaseFile().length());
+        } catch (FileNotFoundException e) {
+            return WordTimings.EMPTY;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "words: unreadable " + wordsFile.getBaseFile().getName(), e);
+            return WordTimings.EMPTY;
+        }
+    }
+
+    private static void writeWords(@NonNull AtomicFile file, @NonNull WordTimings words) {
+        FileOutputStream fos = null;
+        try {
+            fos = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            WordTimingsCodec.write(out, words);
+            out.flush();
+            file.finishWrite(fos);
+        } catch (IOException e) {
+            Log.w(TAG, "words: save failed", e);
+            if (fos != null) file.failWrite(fos);
+        }
+    }
+
     @Override public boolean has(@NonNull Uri uri) {
         return fileFor(uri).exists();
     }
@@ -83,14 +140,26 @@ public final class FileTranscriptCache implements TranscriptCache {
             f.delete();
     }
 
+    @NonNull @Override public String keyOf(@NonNull Uri uri) {
+        return CacheKey.stableKey(app, uri);
+    }
+
     private File fileFor(Uri uri) {
-        return new File(dir, CacheKey.stableKey(app, uri) + ".json");
+        return new File(dir, keyOf(uri) + SEGMENTS_EXT);
     }
     private void evictIfNeeded() {
-        File[] files = dir.listFiles();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENTS_EXT));
         if (files == null || files.length <= maxEntries) return;
         Arrays.sort(files, Comparator.comparingLong(File::lastModified));
         int over = files.length - maxEntries;
-        for (int i=0; i<over; i++) { try { files[i].delete(); } catch (Exception ignore) {} }
+        for (int i=0; i<over; i++) {
+            try {
+                String name = files[i].getName();
+                String key = name.substring(0, name.length() - SEGMENTS_EXT.length());
+                files[i].delete();
+                new AtomicFile(new File(dir, key + WORDS_EXT)).delete();
+                evicts.incrementAndGet();
+            } catch (Exception ignore) {}
+        }
     }
 }
\ No newline at end of file
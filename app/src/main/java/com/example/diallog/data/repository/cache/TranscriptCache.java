@@ -6,6 +6,7 @@ import android.net.Uri;
 import androidx.annotation.NonNull;
 
 import com.example.diallog.data.model.TranscriptSegment;
+import com.example.diallog.data.model.WordTimings;
 
 import java.util.List;
 
@@ -14,4 +15,21 @@ public interface TranscriptCache {
     void put(@NonNull Uri uri, @NonNull List<TranscriptSegment> segs);
     boolean has(@NonNull Uri uri);
     void clear();
+
+    /** 구간과 함께 단어 시각도 저장합니다. 단어 시각을 저장하지 않는 구현은 구간만 저장합니다. */
+    default void put(@NonNull Uri uri, @NonNull List<TranscriptSegment> segs, @NonNull WordTimings words) {
+        put(uri, segs);
+    }
+
+    /** 저장된 단어 시각. 없으면 WordTimings.EMPTY */
+    @NonNull
+    default WordTimings getWords(@NonNull Uri uri) {
+        return WordTimings.EMPTY;
+    }
+
+    /** 같은 녹음인지 판단하는 키. 진행 중인 전사를 합칠 때 씁니다. */
+    @NonNull
+    default String keyOf(@NonNull Uri uri) {
+        return uri.toString();
+    }
 }
\ No newline at end of file
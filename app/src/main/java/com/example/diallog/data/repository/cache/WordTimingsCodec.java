@@ -0,0 +1,99 @@
+package com.example.diallog.data.repository.cache;
+
+import androidx.annotation.NonNull;
+
+import com.example.diallog.data.model.WordTimings;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WordTimings 이진 포맷. 단어 문자열을 빼면 단어당 보통 4~6바이트입니다.
+ * 포맷: MAGIC, VERSION, count(varint), textBytes(int), text(UTF-8),
+ *       [zigzag(start - 이전 start), end - start, 단어 길이(char)]* 모두 varint
+ * 시작 시각은 정렬되어 있어 차이가 작고, 단어 길이는 char 단위라 읽은 뒤 문자열을 그대로 잘라 씁니다.
+ */
+final class WordTimingsCodec {
+    private static final int MAGIC = 0x444C5754; // "DLWT"
+    private static final int VERSION = 1;
+    private static final int MIN_HEADER_BYTES = 4 + 4 + 1 + 4;  // MAGIC, VERSION, count, textBytes
+    private static final int MIN_WORD_BYTES = 3;                 // varint 세 개
+
+    private WordTimingsCodec() {}
+
+    static void write(@NonNull DataOutputStream out, @NonNull WordTimings words) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        int n = words.size();
+        writeVarint(out, n);
+        byte[] text = words.packedText().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(text.length);
+        out.write(text);
+        int prevStart = 0;
+        for (int i = 0; i < n; i++) {
+            int start = words.startMs(i);
+            int delta = start - prevStart;
+            writeVarint(out, (delta << 1) ^ (delta >> 31));
+            writeVarint(out, words.endMs(i) - start);
+            writeVarint(out, words.wordLength(i));
+            prevStart = start;
+        }
+    }
+
+    /**
+     * @param length 읽는 파일의 크기. 헤더의 개수/길이를 이것과 비교해 손상된 값으로 큰 배열을 잡지 않습니다.
+     * @throws IOException 포맷이 다르거나 잘린 경우
+     */
+    @NonNull
+    static WordTimings read(@NonNull DataInputStream in, long length) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("unsupported word timings format");
+        }
+        int n = readVarint(in);
+        int textBytes = in.readInt();
+        long body = length - MIN_HEADER_BYTES;
+        if (n < 0 || textBytes < 0 || textBytes > body
+                || (long) n * MIN_WORD_BYTES > body - textBytes) {
+            throw new IOException("corrupt word timings header n=" + n + " textBytes=" + textBytes
+                    + " length=" + length);
+        }
+        byte[] raw = new byte[textBytes];
+        in.readFully(raw);
+        String text = new String(raw, StandardCharsets.UTF_8);
+
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int[] offsets = new int[n + 1];
+        int prevStart = 0;
+        for (int i = 0; i < n; i++) {
+            int zz = readVarint(in);
+            int start = prevStart + ((zz >>> 1) ^ -(zz & 1));
+            starts[i] = start;
+            ends[i] = start + readVarint(in);
+            offsets[i + 1] = offsets[i] + readVarint(in);
+            prevStart = start;
+        }
+        if (offsets[n] != text.length()) throw new IOException("corrupt word timings text");
+        return n == 0 ? WordTimings.EMPTY : new WordTimings(starts, ends, offsets, text);
+    }
+
+    private static void writeVarint(@NonNull DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarint(@NonNull DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("malformed varint");
+    }
+}
@@ -36,6 +36,7 @@ import com.example.diallog.R;
 import com.example.diallog.data.repository.CallRepository;
 import com.example.diallog.data.repository.FileSystemCallRepository;
 import com.example.diallog.data.repository.MockCallRepository;
+import com.example.diallog.data.repository.TranscriptionJobQueue;
 import com.example.diallog.ui.adapter.CallAdapter;
 import com.example.diallog.ui.viewmodel.MainVMFactory;
 import com.example.diallog.ui.viewmodel.MainViewModel;
@@ -54,7 +55,6 @@ public final class MainActivity extends AppCompatActivity {
     private MainViewModel viewModel;
     private CallAdapter adapter;
     private ContentObserver audioObserver;
-    private long lastRefreshAt = 0L;
 
     private RecyclerView recyclerView;
     private ProgressBar progressBar;
@@ -69,6 +69,7 @@ public final class MainActivity extends AppCompatActivity {
     private static final String KEY_DIR_URI = "dir_tree_uri";
 
 
+    private static final boolean KEYSET_PAGING = true;  // MediaStore를 페이지 단위로 조회 (300개 상한 없음, 힌트 우선순위 없이 모든 오디오를 최신순으로)
     private static final Set<String> HINTS = new HashSet<>(Arrays.asList(
             "Call", "Recorder", "record", "통화", "녹음", "CallRec", "CallRecord", "DialLog"
     ));
@@ -98,8 +99,10 @@ public final class MainActivity extends AppCompatActivity {
 
         CallRepository repo = new FileSystemCallRepository(
                 getApplicationContext(), getSavedDirUri(),
-                HINTS, AUDIO_EXT);
+                HINTS, AUDIO_EXT, KEYSET_PAGING);
         viewModel = new ViewModelProvider(this, new MainVMFactory(repo)).get(MainViewModel.class);
+        // 이전 실행에서 끝나지 않은 전사 작업 재개
+        TranscriptionJobQueue.get(this);
 
         if (!PermissionHelper.hasReadAudioPermission(this)) {
             PermissionHelper.requestReadAudio(this);
@@ -183,6 +186,12 @@ public final class MainActivity extends AppCompatActivity {
             Log.i(TAG, "endReached=" + end);
             reachedEnd = Boolean.TRUE.equals(end);
         });
+        viewModel.getScanProgress().observe(this, progress -> {
+            if (progress != null && progress.done) {
+                Log.i(TAG, "scan done visited=" + progress.filesVisited
+                        + " matched=" + progress.rowsMatched + " took=" + progress.elapsedMs + "ms");
+            }
+        });
         viewModel.getError().observe(this, err -> {
             Log.e(TAG, "error=" + err);
             if (err == null) return;
@@ -195,8 +204,8 @@ public final class MainActivity extends AppCompatActivity {
         audioObserver = new ContentObserver(new Handler(Looper.getMainLooper())) {
             @Override public void onChange(boolean selfChange, @Nullable Uri uri) {
                 Log.i(TAG, "MediaStore changed uri=" + uri);
-                if (System.currentTimeMillis() - lastRefreshAt < 800) return;
-                try { viewModel.refresh(); } finally { lastRefreshAt = System.currentTimeMillis(); }
+                // 바뀐 행만 다시 읽어 반영 (알림이 몰리면 ViewModel이 묶어서 처리)
+                if (viewModel != null) viewModel.onMediaChanged(uri);
             }
         };
         getContentResolver().registerContentObserver(
@@ -245,7 +254,7 @@ public final class MainActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(reqCode, perms, grants);
         if (PermissionHelper.hasReadAudioPermission(this)) {
             if (viewModel == null) {
-                CallRepository repo = new FileSystemCallRepository(getApplicationContext(), getSavedDirUri(), HINTS, AUDIO_EXT);
+                CallRepository repo = new FileSystemCallRepository(getApplicationContext(), getSavedDirUri(), HINTS, AUDIO_EXT, KEYSET_PAGING);
                 viewModel = new ViewModelProvider(this, new MainVMFactory(repo)).get(MainViewModel.class);
             }
             observeViewmodel();
@@ -277,9 +286,9 @@ public final class MainActivity extends AppCompatActivity {
                     null,
                     (scannedPath, uri) -> {
                         Log.i(TAG, "scan completed: " + scannedPath + " uri=" + uri);
-                        // 메인스레드에서 목록 갱신
+                        // 메인스레드에서 목록 갱신 (새 파일은 delta 스캔으로 반영)
                         new Handler(Looper.getMainLooper()).post(() -> {
-                            if (viewModel != null) viewModel.hardRefresh();
+                            if (viewModel != null) viewModel.refresh();
                         });
                     }
             );
@@ -1,5 +1,4 @@
 package com.example.diallog.ui.main;
-import com.example.diallog.BuildConfig;
 
 import android.net.Uri;
 import android.os.Bundle;
@@ -12,17 +11,10 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.diallog.R;
-import com.example.diallog.auth.GoogleOauth;
-import com.example.diallog.data.network.ApiClient;
 import com.example.diallog.data.repository.*;
-import com.example.diallog.data.repository.cache.CachedTranscriber;
-import com.example.diallog.data.repository.cache.FileTranscriptCache;
-import com.example.diallog.data.repository.cache.TranscriptCache;
 import com.example.diallog.ui.adapter.TranscriptAdapter;
 import com.example.diallog.ui.viewmodel.SummaryVMFactory;
 import com.example.diallog.ui.viewmodel.SummaryViewModel;
-import com.example.diallog.utils.AudioSnipper;
-import com.example.diallog.utils.MlKitLanguageDetector;
 
 public final class SummaryActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
@@ -40,33 +32,8 @@ public final class SummaryActivity extends AppCompatActivity {
         recyclerView.setAdapter(adapter);
         recyclerView.setItemAnimator(null);
 
-        Transcriber clova = new ClovaSpeechTranscriber(
-                this,
-                ApiClient.clova(),
-                "ko-KR"
-        );
-        GoogleOauth oauth;
-        try {
-            oauth = new GoogleOauth(this, R.raw.service_account);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        retrofit2.Retrofit googleRetrofit = ApiClient.google();
-        GoogleTranscriber google = new GoogleTranscriber(
-                this,
-                googleRetrofit,
-                oauth,
-                "en-US"
-        );
-
-        LanguageDetector det = new MlKitLanguageDetector();
-        AudioSnipper snipper = new AudioSnipper(this, R.raw.sample1, "sample1_snip.mp3");
-        Transcriber routed = new RouterTranscriber(clova, google, det, snipper);
-        TranscriptCache tc = new FileTranscriptCache(this, 200);
-        Transcriber finalTranscriber = new CachedTranscriber(routed, tc);
-
         viewModel = new ViewModelProvider(
-                this, new SummaryVMFactory(finalTranscriber)
+                this, new SummaryVMFactory(TranscriptionJobQueue.get(this))
         ).get(SummaryViewModel.class);
 
         adapter.submitList(java.util.Collections.emptyList());
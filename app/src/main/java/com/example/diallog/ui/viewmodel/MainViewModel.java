@@ -11,9 +11,13 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.diallog.data.model.CallRecord;
+import com.example.diallog.data.repository.CallChange;
 import com.example.diallog.data.repository.CallRepository;
+import com.example.diallog.data.repository.ScanListener;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -24,19 +28,30 @@ public final class MainViewModel extends ViewModel {
     private static final String TAG = "MainVM";
 
     private static final int PAGE_SIZE = 20;
+    private static final int MAX_PENDING_CHANGES = 32;  // 이보다 많이 몰리면 delta 새로고침 한 번으로 처리
 
     private final CallRepository repo;
     private final MutableLiveData<List<CallRecord>> items = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<String> error = new MutableLiveData<>(null);
     private MutableLiveData<Boolean> endReached = new MutableLiveData<>(false);
+    private final MutableLiveData<ScanListener.Progress> scanProgress = new MutableLiveData<>(null);
     private boolean initialized = false;
+    private boolean indexRestored = false;
 
 
     private volatile boolean pendingRefresh = false;
     private final ExecutorService io = Executors.newSingleThreadExecutor();
     private int offset = 0;
 
+    // 마지막으로 게시한 목록. 스캔 스레드의 배치 병합과 io 스레드가 함께 접근합니다.
+    private final Object itemsLock = new Object();
+    private List<CallRecord> shown = new ArrayList<>();
+
+    // 아직 처리하지 않은 변경 알림 URI (메인 스레드에서 추가, io 스레드에서 비움)
+    private final Object changesLock = new Object();
+    private final LinkedHashSet<Uri> pendingChanges = new LinkedHashSet<>();
+
 
     public MainViewModel(CallRepository repo) {
         this.repo = repo;
@@ -46,6 +61,7 @@ public final class MainViewModel extends ViewModel {
     public LiveData<Boolean> getLoading() { return loading; }
     public LiveData<String> getError() { return error; }
     public LiveData<Boolean> getEndReached() { return endReached; }
+    public LiveData<ScanListener.Progress> getScanProgress() { return scanProgress; }
 
 
     @MainThread public void loadMore(){
@@ -64,9 +80,11 @@ public final class MainViewModel extends ViewModel {
                 if (page == null || page.isEmpty()) {
                     endReached.postValue(true);
                 } else {
-                    List<CallRecord> current = new ArrayList<>(items.getValue()!= null ? items.getValue() : new ArrayList<>());
-                    current.addAll(page);
-                    items.postValue(current);
+                    synchronized (itemsLock) {
+                        List<CallRecord> current = new ArrayList<>(shown);
+                        current.addAll(page);
+                        postItems(current);
+                    }
                     offset += page.size();
                     if (page.size() < PAGE_SIZE)
                         endReached.postValue(true);
@@ -93,22 +111,124 @@ public final class MainViewModel extends ViewModel {
             pendingRefresh = true;
             return;
         }
-        io.submit(() -> executeRefreshPipeline("refresh"));
+        io.submit(() -> executeRefreshPipeline("refresh", false));
     }
 
     @MainThread public void hardRefresh() { // 하드 리프레시: 외부 변경 시 전체 재스캔
         Log.i(TAG, "hardRefresh: force rescan");
         if (Boolean.TRUE.equals(loading.getValue())) { pendingRefresh = true; return; }
 
-        io.submit(() -> executeRefreshPipeline("hardRefresh"));
+        io.submit(() -> executeRefreshPipeline("hardRefresh", true));
+    }
+
+    /**
+     * 항목 단위 변경 알림. uri가 가리키는 행만 다시 읽어 목록에 반영합니다.
+     * uri를 모르면(null) delta 새로고침으로 대신합니다.
+     */
+    @MainThread public void onMediaChanged(@Nullable Uri uri) {
+        if (uri == null) {
+            refresh();
+            return;
+        }
+        boolean schedule;
+        synchronized (changesLock) {
+            schedule = pendingChanges.isEmpty();
+            pendingChanges.add(uri);
+        }
+        if (schedule) io.submit(this::drainChanges);
     }
 
     @Override protected void onCleared() { io.shutdownNow(); }
 
-    private void executeRefreshPipeline(@NonNull String reason) {
+    private void drainChanges() {
+        List<Uri> uris;
+        synchronized (changesLock) {
+            uris = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+        }
+        if (uris.isEmpty()) return;
+        if (uris.size() > MAX_PENDING_CHANGES) {
+            Log.i(TAG, "drainChanges: " + uris.size() + " changes -> delta refresh");
+            executeRefreshPipeline("changes", false);
+            return;
+        }
+        try {
+            for (Uri uri : uris) {
+                CallChange change = repo.applyChange(uri);
+                if (change == null) {
+                    // 어떤 행인지 알 수 없는 알림: 남은 URI까지 delta 새로고침 한 번으로 처리
+                    executeRefreshPipeline("change", false);
+                    return;
+                }
+                applyDiff(change);
+            }
+        } catch (Exception ex) {
+            Log.e(TAG, "drainChanges: error", ex);
+            error.postValue(ex.getMessage());
+        }
+    }
+
+    /**
+     * 변경 하나를 보이는 목록에 반영합니다. 로드된 범위 밖(더 오래된) 항목은 loadMore에서 읽히므로 건너뛰고,
+     * 범위 안에서 추가/삭제가 일어나면 다음 페이지 위치(offset)를 함께 옮깁니다.
+     */
+    private void applyDiff(@NonNull CallChange change) {
+        synchronized (itemsLock) {
+            List<CallRecord> next = new ArrayList<>(shown);
+            int existing = -1;
+            for (int i = 0; i < next.size(); i++) {
+                if (next.get(i).uri.equals(change.uri)) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (change.kind == CallChange.Kind.DELETE) {
+                if (existing < 0) return;
+                next.remove(existing);
+                offset = Math.max(0, offset - 1);
+            } else if (change.kind == CallChange.Kind.UPSERT && change.record != null) {
+                if (existing >= 0) next.remove(existing);
+                int pos = 0;
+                while (pos < next.size()
+                        && next.get(pos).startedAtEpochMs >= change.record.startedAtEpochMs) pos++;
+                boolean reachedEnd = Boolean.TRUE.equals(endReached.getValue());
+                if (pos == next.size() && !reachedEnd) {
+                    // 로드된 범위보다 오래된 항목: 기존 행만 빠졌다면 offset만 맞춥니다.
+                    if (existing < 0) return;
+                    offset = Math.max(0, offset - 1);
+                } else {
+                    next.add(pos, change.record);
+                    if (existing < 0) offset++;
+                }
+            } else {
+                return;
+            }
+            Log.i(TAG, "applyDiff: " + change + " size=" + next.size() + " offset=" + offset);
+            postItems(next);
+        }
+    }
+
+    private void executeRefreshPipeline(@NonNull String reason, boolean fullRescan) {
         Throwable scanError = null;
         try {
-            Future<?> future = repo.refreshAsync();
+            // 콜드 스타트: 저장된 인덱스로 첫 페이지를 먼저 보여주고 스캔 결과로 재조정
+            if (!indexRestored) {
+                indexRestored = true;
+                if (repo.restoreIndex()) {
+                    Log.i(TAG, reason + ": showing restored index");
+                    publishFirstPage();
+                }
+            }
+
+            Future<?> future = repo.refreshAsync(fullRescan, new ScanListener() {
+                @Override public void onBatch(@NonNull List<CallRecord> sortedBatch) {
+                    mergeBatch(sortedBatch);
+                }
+                @Override public void onProgress(@NonNull Progress progress) {
+                    Log.i(TAG, reason + ": " + progress);
+                    scanProgress.postValue(progress);
+                }
+            });
             if (future != null) {
                 try {
                     future.get();
@@ -123,13 +243,7 @@ public final class MainViewModel extends ViewModel {
                 repo.ensureScanned();
             }
 
-            offset = 0;
-            endReached.postValue(false);
-            items.postValue(new ArrayList<>());
-            List<CallRecord> page = repo.getRecent(0, PAGE_SIZE);
-            items.postValue(page);
-            offset = page.size();
-            if (page.size() < PAGE_SIZE) endReached.postValue(true);
+            publishFirstPage();
 
             if (scanError != null) {
                 error.postValue(scanError.getMessage());
@@ -140,4 +254,40 @@ public final class MainViewModel extends ViewModel {
         }
     }
 
+    private void publishFirstPage() {
+        offset = 0;
+        endReached.postValue(false);
+        List<CallRecord> page = repo.getRecent(0, PAGE_SIZE);
+        synchronized (itemsLock) {
+            postItems(new ArrayList<>(page));
+        }
+        offset = page.size();
+        if (page.size() < PAGE_SIZE) endReached.postValue(true);
+    }
+
+    /**
+     * 스캔 중 도착한 배치를 현재 목록에 병합합니다. 보이는 범위(최소 한 페이지)는 유지하고
+     * 그 안에서 최신순 상위 항목만 보여줍니다. 스캔이 끝나면 publishFirstPage()가 목록을 확정합니다.
+     */
+    private void mergeBatch(@NonNull List<CallRecord> sortedBatch) {
+        synchronized (itemsLock) {
+            LinkedHashMap<Uri, CallRecord> byUri = new LinkedHashMap<>();
+            for (CallRecord cr : shown) byUri.put(cr.uri, cr);
+            for (CallRecord cr : sortedBatch) byUri.put(cr.uri, cr);
+            List<CallRecord> merged = new ArrayList<>(byUri.values());
+            merged.sort((a, b) -> Long.compare(b.startedAtEpochMs, a.startedAtEpochMs));
+            int window = Math.max(PAGE_SIZE, shown.size());
+            if (merged.size() > window) {
+                merged = new ArrayList<>(merged.subList(0, window));
+            }
+            postItems(merged);
+        }
+    }
+
+    /** itemsLock을 잡은 상태에서 호출합니다. */
+    private void postItems(@NonNull List<CallRecord> list) {
+        shown = list;
+        items.postValue(new ArrayList<>(list));
+    }
+
 }
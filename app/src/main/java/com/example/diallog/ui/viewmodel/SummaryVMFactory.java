@@ -4,17 +4,17 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
-import com.example.diallog.data.repository.Transcriber;
+import com.example.diallog.data.repository.TranscriptionJobQueue;
 
 public final class SummaryVMFactory implements ViewModelProvider.Factory {
-    private final Transcriber transcriber;
-    public SummaryVMFactory(@NonNull Transcriber t){ this.transcriber = t; }
+    private final TranscriptionJobQueue jobs;
+    public SummaryVMFactory(@NonNull TranscriptionJobQueue jobs){ this.jobs = jobs; }
 
     @NonNull @Override
     @SuppressWarnings("unchecked")
     public <T extends ViewModel> T create(@NonNull Class<T> cls) {
         if (cls.isAssignableFrom(SummaryViewModel.class)) {
-            return (T) new SummaryViewModel(transcriber);
+            return (T) new SummaryViewModel(jobs);
         }
         throw new IllegalArgumentException("Unknown VM: " + cls.getName());
     }
@@ -4,91 +4,108 @@ package com.example.diallog.ui.viewmodel;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.diallog.data.model.TranscriptSegment;
 import com.example.diallog.data.model.TranscriptionResult;
+import com.example.diallog.data.model.WordTimings;
 import com.example.diallog.data.repository.MockTranscriber;
 import com.example.diallog.data.repository.Transcriber;
+import com.example.diallog.data.repository.TranscriptionJobQueue;
+import com.example.diallog.data.repository.TranscriptionListener;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
 public final class SummaryViewModel extends ViewModel {
-    private final Transcriber transcriber;
+    private final TranscriptionJobQueue jobs;
     private final MutableLiveData<List<TranscriptSegment>> segments = new MutableLiveData<>();
+    private final MutableLiveData<WordTimings> words = new MutableLiveData<>(WordTimings.EMPTY);
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<String> error = new MutableLiveData<>(null);
-    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final MutableLiveData<TranscriptionListener.Stage> stage = new MutableLiveData<>(null);
     private final AtomicInteger jobCounter = new AtomicInteger();
-    private final Object jobLock = new Object();
-    private Future<?> runningJob;
+    private volatile Uri currentUri;
+    // 가장 최근 요청의 listener와 결과 future. 다음 요청이나 onCleared에서 떼어 냅니다.
+    @Nullable private TranscriptionListener currentListener;
+    @Nullable private CompletableFuture<TranscriptionResult> currentResult;
 
-    public SummaryViewModel(Transcriber transcriber) {
-        this.transcriber = transcriber;
+    public SummaryViewModel(TranscriptionJobQueue jobs) {
+        this.jobs = jobs;
     }
 
     public LiveData<List<TranscriptSegment>> segments(){ return segments; }
+    /** 탭해서 이동/재생 위치 강조용 단어 시각. WordTimings.indexAt(재생 위치)로 찾습니다. */
+    public LiveData<WordTimings> words(){ return words; }
     public LiveData<Boolean> loading(){ return loading; }
     public LiveData<String> error(){ return error; }
+    public LiveData<TranscriptionListener.Stage> stage(){ return stage; }
 
 
-    public void transcribe(@NonNull Uri audioUri){
+    /**
+     * 전사는 작업 큐에서 실행됩니다. 화면을 떠나도 작업은 계속되고 결과는 캐시에 남습니다.
+     * 여기서는 가장 최근 요청의 결과만 화면에 반영합니다.
+     */
+    public synchronized void transcribe(@NonNull Uri audioUri){
         int jobId = jobCounter.incrementAndGet();
-        Future<?> previous;
-        synchronized (jobLock) {
-            previous = runningJob;
-            runningJob = null;
-        }
-        if (previous != null) {
-            previous.cancel(true);
-        }
+        detach();
         loading.postValue(true);
         error.postValue(null);
-        Future<?> future = io.submit(() -> {
-            try {
-                TranscriptionResult result = transcriber.transcribe(audioUri);
-                if (Thread.currentThread().isInterrupted()) {
-                    return;
-                }
-                if (!result.isFinal) {
-                    return;
-                }
-                if (jobCounter.get() != jobId) {
-                    return;
-                }
-                segments.postValue(result.segments);
-            } catch (Exception e){
-                if (jobCounter.get() != jobId) {
-                    return;
-                }
+        currentUri = audioUri;
+        TranscriptionListener listener = (s, done, total) -> {
+            if (jobCounter.get() == jobId) stage.postValue(s);
+        };
+        currentListener = listener;
+        currentResult = jobs.submit(audioUri, TranscriptionJobQueue.PRIORITY_VISIBLE, listener);
+        currentResult.whenComplete((result, e) -> {
+            if (jobCounter.get() != jobId) {
+                return;
+            }
+            stage.postValue(null);
+            if (e != null) {
                 error.postValue(e.getMessage());
-            } finally {
-                if (jobCounter.get() == jobId) {
-                    loading.postValue(false);
-                }
+            } else if (result != null && result.isFinal) {
+                segments.postValue(result.segments);
+                words.postValue(result.words);
             }
+            loading.postValue(false);
         });
-        synchronized (jobLock) {
-            runningJob = future;
-        }
     }
 
 
+    /** 사용자가 명시적으로 멈출 때. 진행 중인 업로드/폴링까지 취소됩니다. */
+    public void cancelTranscription() {
+        Uri uri = currentUri;
+        if (uri == null) return;
+        jobCounter.incrementAndGet();
+        jobs.cancel(uri);
+        stage.postValue(null);
+        loading.postValue(false);
+    }
+
     @Override protected void onCleared(){
-        synchronized (jobLock) {
-            if (runningJob != null) {
-                runningJob.cancel(true);
-                runningJob = null;
-            }
+        // 작업은 취소하지 않고 결과 반영만 끊습니다.
+        jobCounter.incrementAndGet();
+        synchronized (this) {
+            detach();
         }
-        io.shutdownNow();
+    }
+
+    /**
+     * 직전 요청의 listener를 작업에서 떼고 대기 future를 취소합니다. future 취소는 작업을 멈추지 않고
+     * 콜백만 풀어 주므로, 큐에 남은 작업이 이 ViewModel을 붙잡지 않습니다.
+     */
+    private void detach() {
+        Uri uri = currentUri;
+        if (uri != null && currentListener != null) jobs.unsubscribe(uri, currentListener);
+        if (currentResult != null) currentResult.cancel(false);
+        currentListener = null;
+        currentResult = null;
     }
 
     public void loadMock(@NonNull Uri audioUri) {
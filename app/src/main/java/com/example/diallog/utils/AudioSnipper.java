@@ -12,6 +12,8 @@ import androidx.annotation.NonNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -34,6 +36,16 @@ public final class AudioSnipper {
         }
     }
 
+    /** 전체 디코딩 결과를 16kHz 모노 PCM 블록 단위로 받습니다. */
+    public interface PcmSink {
+        void write(@NonNull short[] samples, int count) throws IOException;
+    }
+
+    /** 디코더 출력 한 블록(원본 샘플레이트/채널) */
+    private interface RawSink {
+        void write(@NonNull byte[] decoded, int sampleRate, int channelCount) throws IOException;
+    }
+
     private final Context app;
     private final Resources resources;
     private final int fallbackRawId;
@@ -66,14 +78,64 @@ public final class AudioSnipper {
         }
     }
 
+    /**
+     * 파일 전체를 디코딩해 16kHz 모노 PCM으로 sink에 흘려보냅니다. 긴 녹음을 메모리에 올리지 않기 위한 경로입니다.
+     * @return 디코딩할 오디오 트랙이 있었으면 true
+     */
+    public boolean decode(@NonNull Uri audioUri, @NonNull PcmSink sink) throws Exception {
+        MediaResolver.ResolvedAudio resolved = null;
+        try {
+            MediaResolver resolver = new MediaResolver(app);
+            resolved = resolver.resolve(audioUri);
+            StreamResampler resampler = new StreamResampler(TARGET_SAMPLE_RATE);
+            return decodeInto(resolved.file, 0, (decoded, sampleRate, channelCount) -> {
+                short[] mono = downmixToMono(toShortArray(decoded), channelCount);
+                short[] out = resampler.process(mono, sampleRate);
+                if (out.length > 0) sink.write(out, out.length);
+            });
+        } finally {
+            if (resolved != null && resolved.tempCopy) {
+                //noinspection ResultOfMethodCallIgnored
+                resolved.file.delete();
+            }
+        }
+    }
+
     @NonNull
     private SnippedAudio decodeHead(@NonNull File file, int maxSeconds) throws Exception {
+        ByteArrayOutputStream rawOutput = new ByteArrayOutputStream();
+        int[] lastFormat = { TARGET_SAMPLE_RATE, 1 };
+        boolean found = decodeInto(file, maxSeconds, (decoded, sampleRate, channelCount) -> {
+            rawOutput.write(decoded);
+            lastFormat[0] = sampleRate;
+            lastFormat[1] = channelCount;
+        });
+        if (!found) {
+            return new SnippedAudio(new byte[0], TARGET_SAMPLE_RATE);
+        }
+
+        byte[] decoded = rawOutput.toByteArray();
+        if (decoded.length == 0) {
+            return new SnippedAudio(decoded, TARGET_SAMPLE_RATE);
+        }
+        short[] samples = toShortArray(decoded);
+        short[] mono = downmixToMono(samples, lastFormat[1]);
+        short[] resampled = resample(mono, lastFormat[0], TARGET_SAMPLE_RATE);
+        byte[] pcm = toByteArray(resampled);
+        return new SnippedAudio(pcm, TARGET_SAMPLE_RATE);
+    }
+
+    /**
+     * MediaCodec 디코딩 루프. 출력 버퍼마다 sink를 부릅니다. maxSeconds <= 0이면 끝까지.
+     * 전사가 취소되어 스레드가 인터럽트되면 반복마다 확인해 InterruptedIOException으로 멈춥니다.
+     */
+    private boolean decodeInto(@NonNull File file, int maxSeconds, @NonNull RawSink sink) throws Exception {
         MediaExtractor extractor = new MediaExtractor();
         extractor.setDataSource(file.getAbsolutePath());
         int trackIndex = selectAudioTrack(extractor);
         if (trackIndex < 0) {
             extractor.release();
-            return new SnippedAudio(new byte[0], TARGET_SAMPLE_RATE);
+            return false;
         }
         extractor.selectTrack(trackIndex);
         MediaFormat format = extractor.getTrackFormat(trackIndex);
@@ -89,7 +151,6 @@ public final class AudioSnipper {
                 ? format.getInteger(MediaFormat.KEY_CHANNEL_COUNT)
                 : 1;
 
-        ByteArrayOutputStream rawOutput = new ByteArrayOutputStream();
         MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
         long maxDurationUs = maxSeconds <= 0 ? Long.MAX_VALUE : maxSeconds * 1_000_000L;
         boolean inputDone = false;
@@ -97,6 +158,9 @@ public final class AudioSnipper {
 
         try {
             while (!outputDone) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("decode cancelled: " + file.getName());
+                }
                 if (!inputDone) {
                     int inputIndex = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
                     if (inputIndex >= 0) {
@@ -124,7 +188,7 @@ public final class AudioSnipper {
                         byte[] chunk = new byte[info.size];
                         outputBuffer.get(chunk);
                         outputBuffer.clear();
-                        rawOutput.write(chunk);
+                        sink.write(chunk, sourceSampleRate, channelCount);
                     }
                     if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
                         outputDone = true;
@@ -149,16 +213,7 @@ public final class AudioSnipper {
             codec.release();
             extractor.release();
         }
-
-        byte[] decoded = rawOutput.toByteArray();
-        if (decoded.length == 0) {
-            return new SnippedAudio(decoded, TARGET_SAMPLE_RATE);
-        }
-        short[] samples = toShortArray(decoded);
-        short[] mono = downmixToMono(samples, channelCount);
-        short[] resampled = resample(mono, sourceSampleRate, TARGET_SAMPLE_RATE);
-        byte[] pcm = toByteArray(resampled);
-        return new SnippedAudio(pcm, TARGET_SAMPLE_RATE);
+        return true;
     }
 
     private static int selectAudioTrack(MediaExtractor extractor) {
@@ -227,4 +282,51 @@ public final class AudioSnipper {
         buffer.asShortBuffer().put(samples);
         return buffer.array();
     }
-}
\ No newline at end of file
+
+    /**
+     * 블록 경계를 넘어 위치(소수)를 이어가는 선형 보간 리샘플러.
+     * 블록마다 따로 리샘플하면 반올림 오차가 쌓여 긴 녹음에서 타임스탬프가 수 초씩 밀립니다.
+     */
+    private static final class StreamResampler {
+        private final int targetRate;
+        private double position;   // 다음 출력 샘플의 원본 위치(스트림 처음 기준)
+        private long consumed;     // 이전 블록까지 받은 원본 샘플 수
+        private short last;
+        private int lastRate = -1;
+
+        StreamResampler(int targetRate) {
+            this.targetRate = targetRate;
+        }
+
+        @NonNull
+        short[] process(@NonNull short[] in, int sourceRate) {
+            if (in.length == 0) return in;
+            if (sourceRate <= 0) sourceRate = targetRate;
+            if (sourceRate != lastRate) {
+                // 중간에 포맷이 바뀌면 위치를 현재 블록 처음으로 맞춥니다.
+                position = Math.max(position, consumed);
+                lastRate = sourceRate;
+            }
+            double step = (double) sourceRate / (double) targetRate;
+            int capacity = (int) Math.ceil((consumed + in.length - position) / step) + 1;
+            short[] out = new short[Math.max(0, capacity)];
+            int n = 0;
+            while (n < out.length) {
+                long base = (long) Math.floor(position);
+                int idx = (int) (base - consumed);
+                if (idx + 1 >= in.length) break;
+                double frac = position - base;
+                short s1 = idx < 0 ? last : in[idx];
+                short s2 = in[idx + 1];
+                out[n++] = (short) ((1 - frac) * s1 + frac * s2);
+                position += step;
+            }
+            consumed += in.length;
+            last = in[in.length - 1];
+            if (n == out.length) return out;
+            short[] trimmed = new short[n];
+            System.arraycopy(out, 0, trimmed, 0, n);
+            return trimmed;
+        }
+    }
+}
@@ -63,18 +63,39 @@ public final class MediaResolver {
     private @NonNull String safeName(@Nullable String n) {
         return (n!=null && !n.isEmpty()) ? n : "audio_"+System.currentTimeMillis()+".bin";
     }
+    /**
+     * 같은 uri를 여러 경로(추측 Clova, 헤지 Google, 앞부분 자르기, 조각 디코딩)가 동시에 풀기 때문에
+     * 복사본마다 이름을 따로 만듭니다. 확장자는 MIME 추정과 업로드 파일명에 쓰이므로 끝에 그대로 둡니다.
+     * 각 호출자가 자기 복사본만 지웁니다.
+     */
+    private static @NonNull File newCacheFile(@NonNull File cache, @NonNull String name) throws IOException {
+        return File.createTempFile("res", "-" + name.replace('/', '_'), cache);
+    }
     private static @NonNull File copyRawToCache(@NonNull Resources res, @NonNull File cache, int id, @NonNull String name) throws Exception {
-        File dst = new File(cache, name);
+        File dst = newCacheFile(cache, name);
         try (InputStream in = res.openRawResource(id); FileOutputStream out = new FileOutputStream(dst)) {
             byte[] buf = new byte[8192]; int n; while ((n = in.read(buf)) != -1) out.write(buf,0,n);
+        } catch (Exception e) {
+            //noinspection ResultOfMethodCallIgnored
+            dst.delete();
+            throw e;
         }
         return dst;
     }
     private @NonNull File copyContentToCache(@NonNull Uri uri, @NonNull String name) throws Exception {
-        File out = new File(app.getCacheDir(), name);
+        File out = newCacheFile(app.getCacheDir(), name);
         try (InputStream in = app.getContentResolver().openInputStream(uri); OutputStream os = new FileOutputStream(out)) {
             if (in == null) throw new IllegalStateException("cannot open: " + uri);
-            byte[] buf = new byte[8192]; int n; while ((n = in.read(buf)) > 0) os.write(buf,0,n);
+            byte[] buf = new byte[8192]; int n;
+            while ((n = in.read(buf)) > 0) {
+                // 전사가 취소되면 복사를 멈춥니다. 남은 조각은 아래에서 지웁니다.
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("copy cancelled: " + uri);
+                os.write(buf,0,n);
+            }
+        } catch (Exception e) {
+            //noinspection ResultOfMethodCallIgnored
+            out.delete();
+            throw e;
         }
         return out;
     }